@@ -0,0 +1,22 @@
+// k6 scenario issuing GET requests on PATHS (comma separated, picked at random) from VUS connections.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const PATHS = (__ENV.PATHS || '/owners/1').split(',');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '2000'),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const response = http.get(BASE_URL + PATHS[Math.floor(Math.random() * PATHS.length)]);
+    check(response, { 'status is 200': (r) => r.status === 200 });
+}
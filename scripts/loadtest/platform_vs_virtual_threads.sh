@@ -0,0 +1,100 @@
+#!/usr/bin/env bash
+
+# Measures the throughput of a servlet-based service at 2000 concurrent connections, first on the default Tomcat
+# platform-thread pool, then with the virtual-threads profile, and prints the request rate, p99 latency, peak
+# number of live JVM threads and the number of virtual thread pinning events of each run.
+#
+# Requires k6, jq, curl and a Java 21 runtime, and a built service: ./mvnw -Pjava21 -pl spring-petclinic-<service>-service package
+# Tune with VUS (default 2000) and DURATION (default 60s).
+
+set -o errexit
+set -o errtrace
+set -o nounset
+set -o pipefail
+
+function usage {
+    echo "usage: $0: <customers|vets|visits>"
+    exit 1
+}
+
+if [[ $# -ne 1 ]]; then
+    usage
+fi
+
+case $1 in
+    customers)
+        PORT=8081
+        PATHS="/owners/1,/owners/6,/owners/6/pets/7,/owners?lastName=Da"
+        ;;
+    vets)
+        PORT=8083
+        PATHS="/vets"
+        ;;
+    visits)
+        PORT=8082
+        PATHS="/owners/6/pets/7/visits,/pets/visits?petId=7,8"
+        ;;
+    *)
+        usage
+        ;;
+esac
+
+ROOT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )/../.." && pwd )"
+OUT_DIR="${ROOT_DIR}/target/loadtest"
+SERVICE="$1"
+export VUS="${VUS:-2000}"
+export DURATION="${DURATION:-60s}"
+export PATHS
+
+JAR="$(ls "${ROOT_DIR}"/spring-petclinic-"${SERVICE}"-service/target/spring-petclinic-"${SERVICE}"-service-*.jar | head -n 1)"
+mkdir -p "${OUT_DIR}"
+
+# 2000 connections need as many file descriptors on both ends
+ulimit -n 65536 || echo "Could not raise the open files limit, k6 may run out of sockets"
+
+function run {
+    local name="$1"
+    shift
+    echo "Starting the ${SERVICE} service (${name})"
+    java -jar "${JAR}" --server.port="${PORT}" \
+        --spring.cloud.config.enabled=false --eureka.client.enabled=false \
+        --management.endpoints.web.exposure.include=health,metrics \
+        "$@" > "${OUT_DIR}/${SERVICE}-${name}.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do sleep 1; done
+
+    echo "Warming up"
+    VUS=200 DURATION=15s k6 run --quiet -e BASE_URL="http://localhost:${PORT}" \
+        "${ROOT_DIR}/scripts/loadtest/http-get.js" > /dev/null
+
+    (
+        while true; do
+            curl -sf "http://localhost:${PORT}/actuator/metrics/jvm.threads.live" | jq '.measurements[0].value | floor'
+            sleep 1
+        done
+    ) > "${OUT_DIR}/${SERVICE}-${name}-threads.txt" &
+    local sampler=$!
+
+    echo "Running ${VUS} virtual users for ${DURATION}"
+    k6 run --quiet -e BASE_URL="http://localhost:${PORT}" \
+        --summary-export "${OUT_DIR}/${SERVICE}-${name}-summary.json" "${ROOT_DIR}/scripts/loadtest/http-get.js" > /dev/null
+
+    kill "${sampler}"
+    local pinned
+    pinned="$(curl -sf "http://localhost:${PORT}/actuator/metrics/jvm.threads.virtual.pinned" \
+        | jq '.measurements[] | select(.statistic == "COUNT") | .value' || echo "n/a")"
+    kill "${pid}"
+    wait "${pid}" || true
+    local peak_threads
+    peak_threads="$(sort -n "${OUT_DIR}/${SERVICE}-${name}-threads.txt" | tail -n 1)"
+    printf '%-9s req/s %9.1f   p99 %8.1f ms   peak live threads %6s   pinned %s\n' "${name}" \
+        "$(jq '.metrics.http_reqs.rate' "${OUT_DIR}/${SERVICE}-${name}-summary.json")" \
+        "$(jq '.metrics.http_req_duration["p(99)"]' "${OUT_DIR}/${SERVICE}-${name}-summary.json")" \
+        "${peak_threads}" "${pinned:-n/a}" >> "${OUT_DIR}/${SERVICE}-threads-results.txt"
+}
+
+rm -f "${OUT_DIR}/${SERVICE}-threads-results.txt"
+run platform
+# Included rather than activated, so that profiles activated by the service itself (vets: production) remain
+run virtual --spring.profiles.include=virtual-threads
+cat "${OUT_DIR}/${SERVICE}-threads-results.txt"
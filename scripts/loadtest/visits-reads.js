@@ -0,0 +1,31 @@
+// k6 scenario reading visits the way the gateway does: the visits of one pet, and of a page of pets.
+// Pets 1..PETS each have a few visits, see visits_servlet_vs_reactive.sh.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const PETS = parseInt(__ENV.PETS || '10000');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '500'),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function randomPetId() {
+    return 1 + Math.floor(Math.random() * PETS);
+}
+
+export default function () {
+    const single = http.get(`${BASE_URL}/owners/1/pets/${randomPetId()}/visits`, { tags: { name: 'visitsOfPet' } });
+    check(single, { 'visits of pet: 200': (r) => r.status === 200 });
+
+    const petIds = Array.from({ length: 20 }, randomPetId).join(',');
+    const page = http.get(`${BASE_URL}/pets/visits?petId=${petIds}`, { tags: { name: 'visitsOfPets' } });
+    check(page, { 'visits of pets: 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+
+# Runs the same k6 read scenario against the visits service on the servlet stack and with the reactive
+# profile, on the same H2 data set, and prints the p99 latency and the peak number of live JVM threads of each.
+#
+# Requires k6, jq and curl, and a built service: ./mvnw -pl spring-petclinic-visits-service package
+# Tune with VUS (default 500), DURATION (default 60s), PETS (default 10000) and VISITS_PER_PET (default 5).
+
+set -o errexit
+set -o errtrace
+set -o nounset
+set -o pipefail
+
+ROOT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )/../.." && pwd )"
+OUT_DIR="${ROOT_DIR}/target/loadtest"
+PORT="${PORT:-8082}"
+export VUS="${VUS:-500}"
+export DURATION="${DURATION:-60s}"
+export PETS="${PETS:-10000}"
+VISITS_PER_PET="${VISITS_PER_PET:-5}"
+
+JAR="$(ls "${ROOT_DIR}"/spring-petclinic-visits-service/target/spring-petclinic-visits-service-*.jar | head -n 1)"
+mkdir -p "${OUT_DIR}"
+
+echo "Generating ${PETS} pets x ${VISITS_PER_PET} visits"
+awk -v pets="${PETS}" -v visits="${VISITS_PER_PET}" 'BEGIN {
+    for (pet = 1; pet <= pets; pet++)
+        for (i = 0; i < visits; i++)
+            printf "INSERT INTO visits (pet_id, visit_date, description) VALUES (%d, '\''2020-01-%02d'\'', '\''check-up'\'');\n", pet, 1 + i % 28
+}' > "${OUT_DIR}/visits.sql"
+
+function run {
+    local name="$1"
+    shift
+    echo "Starting the visits service (${name})"
+    java -jar "${JAR}" --server.port="${PORT}" \
+        --spring.cloud.config.enabled=false --eureka.client.enabled=false \
+        --management.endpoints.web.exposure.include=health,metrics \
+        --database=h2 --spring.datasource.url='jdbc:h2:mem:visits;DB_CLOSE_DELAY=-1' \
+        --spring.sql.init.schema-locations=classpath:db/h2/schema.sql \
+        --spring.sql.init.data-locations="file:${OUT_DIR}/visits.sql" \
+        "$@" > "${OUT_DIR}/${name}.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do sleep 1; done
+
+    echo "Warming up"
+    DURATION=15s k6 run --quiet -e BASE_URL="http://localhost:${PORT}" "${ROOT_DIR}/scripts/loadtest/visits-reads.js" > /dev/null
+
+    (
+        while true; do
+            curl -sf "http://localhost:${PORT}/actuator/metrics/jvm.threads.live" | jq '.measurements[0].value | floor'
+            sleep 1
+        done
+    ) > "${OUT_DIR}/${name}-threads.txt" &
+    local sampler=$!
+
+    echo "Running ${VUS} virtual users for ${DURATION}"
+    k6 run --quiet -e BASE_URL="http://localhost:${PORT}" \
+        --summary-export "${OUT_DIR}/${name}-summary.json" "${ROOT_DIR}/scripts/loadtest/visits-reads.js" > /dev/null
+
+    kill "${sampler}"
+    kill "${pid}"
+    wait "${pid}" || true
+    local peak_threads
+    peak_threads="$(sort -n "${OUT_DIR}/${name}-threads.txt" | tail -n 1)"
+    printf '%-9s p99 %8.1f ms   p95 %8.1f ms   req/s %8.1f   peak live threads %s\n' "${name}" \
+        "$(jq '.metrics.http_req_duration["p(99)"]' "${OUT_DIR}/${name}-summary.json")" \
+        "$(jq '.metrics.http_req_duration["p(95)"]' "${OUT_DIR}/${name}-summary.json")" \
+        "$(jq '.metrics.http_reqs.rate' "${OUT_DIR}/${name}-summary.json")" \
+        "${peak_threads}" >> "${OUT_DIR}/results.txt"
+}
+
+rm -f "${OUT_DIR}/results.txt"
+run servlet
+run reactive --spring.profiles.active=reactive
+cat "${OUT_DIR}/results.txt"
@@ -15,27 +15,64 @@
  */
 package org.springframework.samples.petclinic.api.application;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
 /**
+ * Concurrent lookups of the same owner, or of the same owners, share a single call to the customers service.
+ * Each caller gets its own copy of the owners, whose visit lists it can fill in.
+ *
  * @author Maciej Szarlinski
  */
 @Component
 public class CustomersServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    // Could be changed for testing purpose
+    private String hostname = "http://customers-service/";
+
+    private final WebClient webClient;
+
+    private final SingleFlight<Integer, OwnerDetails> ownerLookups;
+
+    private final SingleFlight<List<Integer>, List<OwnerDetails>> ownersLookups;
 
-    public CustomersServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    public CustomersServiceClient(@Qualifier("customersServiceWebClientBuilder") WebClient.Builder webClientBuilder,
+                                  MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.ownerLookups = new SingleFlight<>("getOwner", meterRegistry);
+        this.ownersLookups = new SingleFlight<>("getOwners", meterRegistry);
     }
 
     public Mono<OwnerDetails> getOwner(final int ownerId) {
-        return webClientBuilder.build().get()
-            .uri("http://customers-service/owners/{ownerId}", ownerId)
-            .retrieve()
-            .bodyToMono(OwnerDetails.class);
+        return ownerLookups.execute(ownerId, () -> webClient.get()
+                .uri(hostname + "owners/{ownerId}", ownerId)
+                .retrieve()
+                .bodyToMono(OwnerDetails.class))
+            .map(OwnerDetails::copy);
+    }
+
+    public Mono<List<OwnerDetails>> getOwners(final List<Integer> ownerIds) {
+        return ownersLookups.execute(List.copyOf(ownerIds), () -> webClient.get()
+                .uri(hostname + "owners?ownerId={ownerIds}", joinIds(ownerIds))
+                .retrieve()
+                .bodyToFlux(OwnerDetails.class)
+                .collectList())
+            .map(owners -> owners.stream().map(OwnerDetails::copy).toList());
+    }
+
+    private String joinIds(List<Integer> ownerIds) {
+        return ownerIds.stream().map(Object::toString).collect(joining(","));
+    }
+
+    void setHostname(String hostname) {
+        this.hostname = hostname;
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single upstream call whose result is shared by all of them,
+ * e.g. the owner-details page of a popular owner loaded by several members of the staff at once.
+ * <p>
+ * A call is only shared while it is in flight: it leaves the map as soon as its result is known, so results are
+ * never cached and errors are never replayed to later callers. The result is kept for the callers that joined
+ * before, however late they subscribe. A caller cancelling does not affect the others; the upstream call is only
+ * cancelled once all of them have.
+ * <p>
+ * The callers are counted by {@code petclinic.gateway.singleflight.calls}, tagged with the {@code name} of the
+ * call and whether they led the upstream call or were coalesced into it.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = counter(name, "leader", meterRegistry);
+        this.coalesced = counter(name, "coalesced", meterRegistry);
+    }
+
+    private static Counter counter(String name, String role, MeterRegistry meterRegistry) {
+        return Counter.builder("petclinic.gateway.singleflight.calls")
+            .description("Calls to a downstream service, either leading an upstream call or sharing one in flight")
+            .tag("name", name)
+            .tag("role", role)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the call in flight for {@code key}, or to a new one obtained from {@code call}.
+     * Nothing happens until the returned {@link Mono} is subscribed to.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            while (true) {
+                Flight created = new Flight(key);
+                Flight flight = inFlight.computeIfAbsent(key, k -> created);
+                // A flight whose callers all cancelled is on its way out of the map
+                if (!flight.join()) {
+                    inFlight.remove(key, flight);
+                    continue;
+                }
+                if (flight == created) {
+                    leaders.increment();
+                    return flight.result().doOnSubscribe(subscription -> flight.start(call));
+                }
+                coalesced.increment();
+                return flight.result();
+            }
+        });
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private final class Flight {
+
+        private final K key;
+
+        private final Sinks.One<V> result = Sinks.one();
+
+        /**
+         * Callers that joined and have not cancelled, or -1 once the upstream call is cancelled.
+         */
+        private final AtomicInteger callers = new AtomicInteger();
+
+        private final Disposable.Swap upstream = Disposables.swap();
+
+        private Flight(K key) {
+            this.key = key;
+        }
+
+        boolean join() {
+            return callers.getAndUpdate(count -> count < 0 ? count : count + 1) >= 0;
+        }
+
+        Mono<V> result() {
+            return result.asMono().doOnCancel(this::leave);
+        }
+
+        void start(Supplier<Mono<V>> call) {
+            // Out of the map before the result is emitted, so that the next caller starts a fresh call
+            upstream.update(Mono.defer(call).subscribe(
+                value -> {
+                    inFlight.remove(key, this);
+                    result.tryEmitValue(value);
+                },
+                error -> {
+                    inFlight.remove(key, this);
+                    result.tryEmitError(error);
+                },
+                () -> {
+                    inFlight.remove(key, this);
+                    result.tryEmitEmpty();
+                }));
+        }
+
+        private void leave() {
+            if (callers.decrementAndGet() == 0 && callers.compareAndSet(0, -1)) {
+                inFlight.remove(key, this);
+                upstream.dispose();
+            }
+        }
+    }
+}
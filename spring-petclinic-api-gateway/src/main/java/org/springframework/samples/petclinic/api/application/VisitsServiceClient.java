@@ -15,40 +15,49 @@
  */
 package org.springframework.samples.petclinic.api.application;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.commons.http.VarintIds;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 
-import static java.util.stream.Collectors.joining;
-
 /**
+ * Concurrent lookups of the visits of the same pets share a single call to the visits service. The visits
+ * are only read by the callers, so they share the same instances.
+ *
  * @author Maciej Szarlinski
  */
 @Component
 public class VisitsServiceClient {
 
+    static final MediaType VARINT_IDS = MediaType.valueOf(VarintIds.MEDIA_TYPE_VALUE);
+
     // Could be changed for testing purpose
     private String hostname = "http://visits-service/";
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
 
-    public VisitsServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    private final SingleFlight<List<Integer>, Visits> visitsLookups;
+
+    public VisitsServiceClient(@Qualifier("visitsServiceWebClientBuilder") WebClient.Builder webClientBuilder,
+                               MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.visitsLookups = new SingleFlight<>("getVisitsForPets", meterRegistry);
     }
 
     public Mono<Visits> getVisitsForPets(final List<Integer> petIds) {
-        return webClientBuilder.build()
-            .get()
-            .uri(hostname + "pets/visits?petId={petId}", joinIds(petIds))
+        return visitsLookups.execute(List.copyOf(petIds), () -> webClient
+            .post()
+            .uri(hostname + "pets/visits/query")
+            .contentType(VARINT_IDS)
+            .bodyValue(VarintIds.encode(petIds))
             .retrieve()
-            .bodyToMono(Visits.class);
-    }
-
-    private String joinIds(List<Integer> petIds) {
-        return petIds.stream().map(Object::toString).collect(joining(","));
+            .bodyToMono(Visits.class));
     }
 
     void setHostname(String hostname) {
@@ -15,16 +15,24 @@
  */
 package org.springframework.samples.petclinic.api.boundary.web;
 
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
 import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -37,6 +45,8 @@ import java.util.function.Function;
 @RequestMapping("/api/gateway")
 public class ApiGatewayController {
 
+    static final int MAX_BATCH_SIZE = 100;
+
     private final CustomersServiceClient customersServiceClient;
 
     private final VisitsServiceClient visitsServiceClient;
@@ -65,18 +75,72 @@ public class ApiGatewayController {
 
     }
 
+    /**
+     * Aggregates the details of several owners with one call to each backend service,
+     * instead of one customers-service and one visits-service call per owner.
+     */
+    @PostMapping(value = "owners/batch")
+    public Mono<List<OwnerDetails>> getOwnersDetails(final @RequestBody List<Integer> ownerIds) {
+        if (ownerIds.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + MAX_BATCH_SIZE + " owners can be requested at once"));
+        }
+        if (ownerIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return customersServiceClient.getOwners(ownerIds)
+            .flatMap(owners -> {
+                List<Integer> petIds = owners.stream()
+                    .flatMap(owner -> owner.getPetIds().stream())
+                    .toList();
+                if (petIds.isEmpty()) {
+                    return Mono.just(owners);
+                }
+                return visitsServiceClient.getVisitsForPets(petIds)
+                    .transform(it -> {
+                        ReactiveCircuitBreaker cb = cbFactory.create("getOwnersDetails");
+                        return cb.run(it, throwable -> emptyVisitsForPets());
+                    })
+                    .map(visits -> {
+                        joinVisitsToPets(owners.stream()
+                            .flatMap(owner -> owner.pets().stream())
+                            .toList(), visits.items());
+                        return owners;
+                    });
+            });
+    }
+
     private Function<Visits, OwnerDetails> addVisitsToOwner(OwnerDetails owner) {
         return visits -> {
-            owner.pets()
-                .forEach(pet -> pet.visits()
-                    .addAll(visits.items().stream()
-                        .filter(v -> v.petId() == pet.id())
-                        .toList())
-                );
+            joinVisitsToPets(owner.pets(), visits.items());
             return owner;
         };
     }
 
+    /**
+     * Appends each visit to the visit list of its pet in a single pass over {@code visits},
+     * using an int-keyed index of the pets so that the cost is O(pets + visits).
+     */
+    static void joinVisitsToPets(List<PetDetails> pets, List<VisitDetails> visits) {
+        if (pets.isEmpty() || visits.isEmpty()) {
+            return;
+        }
+        IntObjectMap<List<VisitDetails>> visitsByPetId = new IntObjectHashMap<>(pets.size());
+        for (PetDetails pet : pets) {
+            visitsByPetId.put(pet.id(), pet.visits());
+        }
+        for (VisitDetails visit : visits) {
+            if (visit.petId() == null) {
+                continue;
+            }
+            int petId = visit.petId();
+            List<VisitDetails> petVisits = visitsByPetId.get(petId);
+            if (petVisits != null) {
+                petVisits.add(visit);
+            }
+        }
+    }
+
     private Mono<Visits> emptyVisitsForPets() {
         return Mono.just(new Visits(List.of()));
     }
@@ -38,6 +38,14 @@ public record OwnerDetails(
             .toList();
     }
 
+    /**
+     * Copy of these details with pets of their own, so that visits added to the copy do not show here.
+     */
+    public OwnerDetails copy() {
+        return new OwnerDetails(id, firstName, lastName, address, city, telephone,
+            pets.stream().map(PetDetails::copy).toList());
+    }
+
 
     public static final class OwnerDetailsBuilder {
         private int id;
@@ -35,6 +35,13 @@ public record PetDetails(
         }
     }
 
+    /**
+     * Copy of these details with a visit list of its own.
+     */
+    public PetDetails copy() {
+        return new PetDetails(id, name, birthDate, type, new ArrayList<>(visits));
+    }
+
     public static final class PetDetailsBuilder {
         private int id;
         private String name;
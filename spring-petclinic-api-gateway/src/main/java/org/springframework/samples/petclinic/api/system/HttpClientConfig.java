@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.api.system;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.commons.http.HttpClientProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import static org.springframework.samples.petclinic.commons.http.ServiceHttpClients.connectionProvider;
+import static org.springframework.samples.petclinic.commons.http.ServiceHttpClients.webClientBuilder;
+
+/**
+ * One bounded Reactor Netty connection pool per downstream service, each exposed through its own
+ * load-balanced {@link WebClient.Builder}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    public static final String CUSTOMERS_SERVICE = "customers-service";
+
+    public static final String VISITS_SERVICE = "visits-service";
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider customersServiceConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider(CUSTOMERS_SERVICE, properties.forService(CUSTOMERS_SERVICE));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider visitsServiceConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider(VISITS_SERVICE, properties.forService(VISITS_SERVICE));
+    }
+
+    @Bean
+    @LoadBalanced
+    WebClient.Builder customersServiceWebClientBuilder(
+        @Qualifier("customersServiceConnectionProvider") ConnectionProvider connectionProvider,
+        HttpClientProperties properties) {
+        return webClientBuilder(connectionProvider, properties.forService(CUSTOMERS_SERVICE));
+    }
+
+    @Bean
+    @LoadBalanced
+    WebClient.Builder visitsServiceWebClientBuilder(
+        @Qualifier("visitsServiceConnectionProvider") ConnectionProvider connectionProvider,
+        HttpClientProperties properties) {
+        return webClientBuilder(connectionProvider, properties.forService(VISITS_SERVICE));
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.api.system;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.search.Search;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the {@code 200 OK} answers of a route to GET requests, so that pages loading the same
+ * reference data over and over (vets, pet types) are answered by the gateway without a round trip:
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       timeToLive: 5m
+ *       maxWeight: 512KB
+ *       paths: /api/customer/petTypes
+ *       varyHeaders: Accept
+ * </pre>
+ * Entries are keyed by path, query and the values of the {@code varyHeaders}, expire {@code timeToLive} after
+ * being stored, and are evicted once their bodies exceed {@code maxWeight} in total. A body larger than
+ * {@code maxWeight} on its own is passed through without being stored. With {@code paths}, only the
+ * GET requests matching one of these patterns are cached; patterns apply to the path as received by the gateway.
+ * Any other method going through the route empties its cache, and a response it was racing with is not stored.
+ * Responses marked {@code no-store} or {@code private}, or setting cookies, are never stored.
+ * <p>
+ * A cached response is served with an {@code Age} header, and as a 304 when the request
+ * {@code If-None-Match} matches its {@code ETag}. Hits, misses and evictions are published as the
+ * {@code cache.*} metrics of the {@code gateway.response} cache, tagged with the route id.
+ * <p>
+ * The cache of a route outlives the refreshes of the routes: it is kept as long as its settings are unchanged,
+ * and replaced, along with its metrics, when they change.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_NAME = "gateway.response";
+
+    // Only describe the connection the response came through, or are computed when the response is served
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+        HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, HttpHeaders.AGE,
+        "Keep-Alive");
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, RouteCache> routeCaches = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "maxWeight");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Settings settings = Settings.of(config);
+        RouteCache routeCache = routeCaches.compute(routeId, (id, existing) -> {
+            if (existing != null && existing.settings.equals(settings)) {
+                return existing;
+            }
+            if (existing != null) {
+                Search.in(meterRegistry).tags("cache", CACHE_NAME, "route", id).meters()
+                    .forEach(meterRegistry::remove);
+            }
+            RouteCache created = new RouteCache(settings);
+            CaffeineCacheMetrics.monitor(meterRegistry, created.entries, CACHE_NAME, "route", id);
+            return created;
+        });
+        // Ahead of the response writer, so that the body it writes goes through the decorated response
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            if (HttpMethod.GET.equals(method)) {
+                if (!routeCache.isCached(request)) {
+                    return chain.filter(exchange);
+                }
+                String key = routeCache.keyOf(request);
+                CachedResponse cached = routeCache.entries.getIfPresent(key);
+                if (cached != null) {
+                    return cached.writeTo(exchange);
+                }
+                long generation = routeCache.generation.get();
+                return chain.filter(exchange.mutate()
+                    .response(new CachingResponse(exchange.getResponse(), routeCache, key, generation))
+                    .build());
+            }
+            if (HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).doFinally(signal -> routeCache.invalidate());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        private Duration timeToLive = Duration.ofMinutes(1);
+
+        private DataSize maxWeight = DataSize.ofMegabytes(1);
+
+        private List<String> paths = new ArrayList<>();
+
+        private List<String> varyHeaders = new ArrayList<>(List.of(HttpHeaders.ACCEPT));
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public Config setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+
+        public Config setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public Config setPaths(List<String> paths) {
+            this.paths = paths;
+            return this;
+        }
+
+        public List<String> getVaryHeaders() {
+            return varyHeaders;
+        }
+
+        public Config setVaryHeaders(List<String> varyHeaders) {
+            this.varyHeaders = varyHeaders;
+            return this;
+        }
+    }
+
+    private record Settings(Duration timeToLive, DataSize maxWeight, List<String> paths, List<String> varyHeaders) {
+
+        static Settings of(Config config) {
+            return new Settings(config.getTimeToLive(), config.getMaxWeight(), List.copyOf(config.getPaths()),
+                List.copyOf(config.getVaryHeaders()));
+        }
+    }
+
+    private static final class RouteCache {
+
+        private final Settings settings;
+
+        private final Cache<String, CachedResponse> entries;
+
+        private final List<PathPattern> paths;
+
+        private final List<String> varyHeaders;
+
+        /**
+         * Bumped by every invalidation, so that a response read before a write completed is not stored after it.
+         */
+        private final AtomicLong generation = new AtomicLong();
+
+        private RouteCache(Settings settings) {
+            this.settings = settings;
+            this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(settings.timeToLive())
+                .maximumWeight(settings.maxWeight().toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .recordStats()
+                .build();
+            this.paths = settings.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.varyHeaders = settings.varyHeaders();
+        }
+
+        boolean isCached(ServerHttpRequest request) {
+            if (paths.isEmpty()) {
+                return true;
+            }
+            PathContainer path = request.getPath().pathWithinApplication();
+            return paths.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+
+        String keyOf(ServerHttpRequest request) {
+            StringBuilder key = new StringBuilder(request.getURI().getRawPath());
+            if (request.getURI().getRawQuery() != null) {
+                key.append('?').append(request.getURI().getRawQuery());
+            }
+            for (String header : varyHeaders) {
+                key.append('\n').append(header).append(": ").append(request.getHeaders().getOrEmpty(header));
+            }
+            return key.toString();
+        }
+
+        void store(String key, long generation, CachedResponse response) {
+            if (this.generation.get() == generation) {
+                entries.put(key, response);
+                // An invalidation may have run between the check and the put
+                if (this.generation.get() != generation) {
+                    entries.invalidate(key);
+                }
+            }
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            entries.invalidateAll();
+        }
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, long storedAt) {
+
+        Mono<Void> writeTo(ServerWebExchange exchange) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().putAll(headers);
+            response.getHeaders().set(HttpHeaders.AGE,
+                Long.toString(Duration.ofMillis(System.currentTimeMillis() - storedAt).toSeconds()));
+            String eTag = headers.getETag();
+            if (eTag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(eTag)) {
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                return response.setComplete();
+            }
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+    }
+
+    /**
+     * Buffers the body of a cacheable response to store it, then writes it on.
+     */
+    private static final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final RouteCache routeCache;
+
+        private final String key;
+
+        private final long generation;
+
+        private CachingResponse(ServerHttpResponse delegate, RouteCache routeCache, String key, long generation) {
+            super(delegate);
+            this.routeCache = routeCache;
+            this.key = key;
+            this.generation = generation;
+        }
+
+        /**
+         * Writes the body on as it comes, keeping a copy of it to store once complete. The copy is dropped as
+         * soon as the body exceeds the {@code maxWeight} of the route, which then passes it through uncached.
+         */
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            long maxBytes = routeCache.settings.maxWeight().toBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean oversized = new AtomicBoolean();
+            return super.writeWith(Flux.from(body)
+                .doOnNext(buffer -> {
+                    int length = buffer.readableByteCount();
+                    if (oversized.get() || copy.size() + (long) length > maxBytes) {
+                        oversized.set(true);
+                        copy.reset();
+                        return;
+                    }
+                    byte[] bytes = new byte[length];
+                    buffer.read(bytes);
+                    buffer.readPosition(buffer.readPosition() - length);
+                    copy.writeBytes(bytes);
+                })
+                .doOnComplete(() -> {
+                    if (!oversized.get()) {
+                        routeCache.store(key, generation,
+                            new CachedResponse(cachedHeaders(), copy.toByteArray(), System.currentTimeMillis()));
+                    }
+                }));
+        }
+
+        private HttpHeaders cachedHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.put(name, values);
+                }
+            });
+            return headers;
+        }
+
+        private boolean isCacheable() {
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()
+                || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            String cacheControl = getHeaders().getCacheControl();
+            return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+        }
+    }
+}
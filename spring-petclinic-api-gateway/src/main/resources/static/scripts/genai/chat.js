@@ -11,6 +11,14 @@ function appendMessage(message, type) {
 
     // Scroll to the bottom of the chatbox to show the latest message
     chatMessages.scrollTop = chatMessages.scrollHeight;
+    return messageElement;
+}
+
+// Replaces the text of a message while its answer is still arriving
+function updateMessage(messageElement, message) {
+    const chatMessages = document.getElementById('chatbox-messages');
+    messageElement.innerHTML = marked.parse(message);
+    chatMessages.scrollTop = chatMessages.scrollHeight;
 }
 
 function toggleChatbox() {
@@ -38,24 +46,85 @@ function sendMessage() {
     // Display user message in the chatbox
     appendMessage(query, 'user');
 
-    // Send the message to the backend
-    fetch('/api/genai/chatclient', {
+    // The answer is streamed as server-sent events, each carrying the next piece of the text
+    const botMessage = appendMessage('', 'bot');
+    let answer = '';
+    fetch('/api/genai/chatclient/stream', {
         method: 'POST',
         headers: {
             'Content-Type': 'application/json',
+            'Accept': 'text/event-stream',
+            'X-Conversation-Id': conversationId(),
         },
         body: JSON.stringify(query),
     })
-        .then(response => response.text())
-        .then(responseText => {
-            // Display the response from the server in the chatbox
-            appendMessage(responseText, 'bot');
+        .then(response => {
+            if (!response.ok || !response.body) {
+                throw new Error('Unexpected chat response status ' + response.status);
+            }
+            return readEvents(response.body, (event, data) => {
+                const chunk = JSON.parse(data);
+                answer = event === 'error' ? chunk.content : answer + chunk.content;
+                updateMessage(botMessage, answer);
+            });
         })
         .catch(error => {
             console.error('Error:', error);
             // Display the fallback message in the chatbox
-            appendMessage('Chat is currently unavailable', 'bot');
+            updateMessage(botMessage, 'Chat is currently unavailable');
+        });
+}
+
+// Names the conversation of this browser, so that the chatbot remembers its previous messages
+function conversationId() {
+    let id = localStorage.getItem('chatConversationId');
+    if (!id) {
+        id = window.crypto && crypto.randomUUID
+            ? crypto.randomUUID()
+            : Date.now().toString(36) + '-' + Math.random().toString(36).substring(2);
+        localStorage.setItem('chatConversationId', id);
+    }
+    return id;
+}
+
+// Calls onEvent with the type and data of every server-sent event of the stream, as they arrive
+function readEvents(body, onEvent) {
+    const reader = body.getReader();
+    const decoder = new TextDecoder();
+    let buffered = '';
+
+    function dispatch(block) {
+        let event = 'message';
+        const data = [];
+        block.split(/\r?\n/).forEach(line => {
+            const separator = line.indexOf(':');
+            const field = separator < 0 ? line : line.substring(0, separator);
+            let value = separator < 0 ? '' : line.substring(separator + 1);
+            if (value.startsWith(' ')) {
+                value = value.substring(1);
+            }
+            if (field === 'event') {
+                event = value;
+            } else if (field === 'data') {
+                data.push(value);
+            }
+        });
+        if (data.length > 0) {
+            onEvent(event, data.join('\n'));
+        }
+    }
+
+    function read() {
+        return reader.read().then(({done, value}) => {
+            buffered += decoder.decode(value || new Uint8Array(), {stream: !done});
+            const blocks = buffered.split(/\r?\n\r?\n/);
+            buffered = done ? '' : blocks.pop();
+            blocks.filter(block => block.trim()).forEach(dispatch);
+            return done ? undefined : read();
         });
+    }
+
+    return read();
 }
 
 function handleKeyPress(event) {
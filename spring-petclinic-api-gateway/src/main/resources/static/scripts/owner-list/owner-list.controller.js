@@ -3,8 +3,27 @@
 angular.module('ownerList')
     .controller('OwnerListController', ['$http', function ($http) {
         var self = this;
+        var pageSize = 20;
+        var lastSearch = 0;
 
-        $http.get('api/customer/owners').then(function (resp) {
-            self.owners = resp.data;
-        });
+        self.query = '';
+        self.page = 0;
+        self.hasNext = false;
+
+        // Owners are searched by last name prefix on the server, one page at a time
+        self.search = function (page) {
+            var search = ++lastSearch;
+            $http.get('api/customer/owners', {
+                params: {lastName: self.query || '', page: page, size: pageSize}
+            }).then(function (resp) {
+                // Ignore the responses of the searches overtaken by a newer one
+                if (search === lastSearch) {
+                    self.owners = resp.data.items;
+                    self.page = resp.data.page;
+                    self.hasNext = resp.data.hasNext;
+                }
+            });
+        };
+
+        self.search(0);
     }]);
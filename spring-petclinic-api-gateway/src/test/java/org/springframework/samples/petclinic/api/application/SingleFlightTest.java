@@ -0,0 +1,136 @@
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>("getOwner", meterRegistry);
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final AtomicBoolean upstreamCancelled = new AtomicBoolean();
+
+    private Sinks.One<String> upstream;
+
+    @Test
+    void shouldShareCallInFlightForSameKey() {
+        List<String> results = new ArrayList<>();
+        call(1).subscribe(results::add);
+        call(1).subscribe(results::add);
+
+        upstream.tryEmitValue("George");
+
+        assertThat(results).containsExactly("George", "George");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(counter("leader")).isEqualTo(1);
+        assertThat(counter("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotShareCallsForDifferentKeys() {
+        call(1).subscribe();
+        call(2).subscribe();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldStartNewCallOnceCallCompleted() {
+        call(1).subscribe();
+        upstream.tryEmitValue("George");
+
+        call(1).subscribe();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotReplayErrorToLaterCallers() {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicReference<Throwable> sharedError = new AtomicReference<>();
+        call(1).subscribe(value -> { }, error::set);
+        call(1).subscribe(value -> { }, sharedError::set);
+
+        upstream.tryEmitError(new IllegalStateException("customers-service unavailable"));
+
+        assertThat(error.get()).isInstanceOf(IllegalStateException.class);
+        assertThat(sharedError.get()).isSameAs(error.get());
+        assertThat(singleFlight.inFlight()).isZero();
+
+        List<String> results = new ArrayList<>();
+        call(1).subscribe(results::add);
+        upstream.tryEmitValue("George");
+        assertThat(results).containsExactly("George");
+    }
+
+    @Test
+    void shouldKeepCallForCallersThatDidNotCancel() {
+        List<String> results = new ArrayList<>();
+        Disposable cancelled = call(1).subscribe(results::add);
+        call(1).subscribe(results::add);
+
+        cancelled.dispose();
+        upstream.tryEmitValue("George");
+
+        assertThat(upstreamCancelled).isFalse();
+        assertThat(results).containsExactly("George");
+    }
+
+    @Test
+    void shouldCancelCallOnceAllCallersCancelled() {
+        Disposable first = call(1).subscribe();
+        Disposable second = call(1).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertThat(upstreamCancelled).isTrue();
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldGiveResultToCallerJoiningBetweenValueAndCompletion() {
+        List<String> results = new ArrayList<>();
+        Mono<String> joiningCall = singleFlight.execute(1, () -> Mono.just("George"));
+        Mono<String> upstreamCall = Mono.fromDirect(Flux.just("George")
+            // Calls again once the flight has its value, before it completes
+            .concatWith(Mono.fromRunnable(() -> joiningCall.subscribe(results::add))));
+
+        singleFlight.execute(1, () -> upstreamCall).subscribe(results::add);
+
+        assertThat(results).containsExactly("George", "George");
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    private Mono<String> call(int ownerId) {
+        return singleFlight.execute(ownerId, () -> {
+            upstreamCalls.incrementAndGet();
+            upstream = Sinks.one();
+            return upstream.asMono().doOnCancel(() -> upstreamCancelled.set(true));
+        });
+    }
+
+    private double counter(String role) {
+        return meterRegistry.get("petclinic.gateway.singleflight.calls")
+            .tag("name", "getOwner")
+            .tag("role", role)
+            .counter()
+            .count();
+    }
+}
@@ -1,7 +1,9 @@
 package org.springframework.samples.petclinic.api.application;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,8 +13,11 @@ import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -27,7 +32,7 @@ class VisitsServiceClientIntegrationTest {
     @BeforeEach
     void setUp() {
         server = new MockWebServer();
-        visitsServiceClient = new VisitsServiceClient(WebClient.builder());
+        visitsServiceClient = new VisitsServiceClient(WebClient.builder(), new SimpleMeterRegistry());
         visitsServiceClient.setHostname(server.url("/").toString());
     }
 
@@ -47,6 +52,23 @@ class VisitsServiceClientIntegrationTest {
         assertVisitDescriptionEquals(visits.block(), PET_ID,"test visit");
     }
 
+    @Test
+    void getVisitsForPets_postsVarintPetIds() throws InterruptedException {
+        prepareResponse(response -> response
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"items\":[]}"));
+
+        visitsServiceClient.getVisitsForPets(List.of(1, 300)).block();
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("POST", request.getMethod());
+        assertEquals("/pets/visits/query", request.getPath());
+        assertEquals(VisitsServiceClient.VARINT_IDS.toString(), request.getHeader("Content-Type"));
+        // 300 = 0b10_0101100: low 7 bits with the continuation bit, then the remaining bits
+        assertArrayEquals(new byte[]{1, (byte) 0xAC, 0x02}, request.getBody().readByteArray());
+    }
+
 
     private void assertVisitDescriptionEquals(Visits visits, int petId, String description) {
         assertEquals(1, visits.items().size());
@@ -94,4 +94,61 @@ class ApiGatewayControllerTest {
             .jsonPath("$.pets[0].visits").isEmpty();
     }
 
+    @Test
+    void getOwnersDetails_withSingleVisitsCall() {
+        PetDetails cat = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(20)
+            .name("Garfield")
+            .visits(new ArrayList<>())
+            .build();
+        PetDetails dog = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(21)
+            .name("Odie")
+            .visits(new ArrayList<>())
+            .build();
+        OwnerDetails jon = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .id(1)
+            .pets(List.of(cat))
+            .build();
+        OwnerDetails liz = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .id(2)
+            .pets(List.of(dog))
+            .build();
+        Mockito
+            .when(customersServiceClient.getOwners(List.of(1, 2)))
+            .thenReturn(Mono.just(List.of(jon, liz)));
+
+        Visits visits = new Visits(List.of(
+            new VisitDetails(300, cat.id(), null, "First visit"),
+            new VisitDetails(301, dog.id(), null, "Second visit")));
+        Mockito
+            .when(visitsServiceClient.getVisitsForPets(List.of(cat.id(), dog.id())))
+            .thenReturn(Mono.just(visits));
+
+        client.post()
+            .uri("/api/gateway/owners/batch")
+            .bodyValue(List.of(1, 2))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].pets[0].visits[0].description").isEqualTo("First visit")
+            .jsonPath("$[1].pets[0].visits[0].description").isEqualTo("Second visit");
+
+        Mockito.verify(visitsServiceClient, Mockito.times(1)).getVisitsForPets(Mockito.anyList());
+    }
+
+    @Test
+    void getOwnersDetails_rejectsOversizedBatch() {
+        List<Integer> ownerIds = new ArrayList<>();
+        for (int i = 1; i <= ApiGatewayController.MAX_BATCH_SIZE + 1; i++) {
+            ownerIds.add(i);
+        }
+
+        client.post()
+            .uri("/api/gateway/owners/batch")
+            .bodyValue(ownerIds)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
 }
@@ -0,0 +1,168 @@
+package org.springframework.samples.petclinic.api.system;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    private final ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(meterRegistry);
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = factory.apply(config());
+    }
+
+    @Test
+    void shouldServeRepeatedGetFromCache() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#1");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#1");
+        assertThat(second.getResponse().getHeaders().getETag()).isEqualTo("\"types\"");
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isNotNull();
+        assertThat(backendCalls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").tag("route", "customers-service")
+            .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedFromCache() {
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/customer/petTypes")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"types\""));
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldKeyEntriesByVaryHeaders() {
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes").header(HttpHeaders.ACCEPT, "application/json"));
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes").header(HttpHeaders.ACCEPT, "text/csv"));
+
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotCacheOtherPaths() {
+        exchange(MockServerHttpRequest.get("/api/customer/owners/1"));
+        exchange(MockServerHttpRequest.get("/api/customer/owners/1"));
+
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldInvalidateOnWriteThroughRoute() {
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+        exchange(MockServerHttpRequest.put("/api/customer/owners/1"));
+
+        MockServerWebExchange afterWrite = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        assertThat(afterWrite.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#3");
+        assertThat(backendCalls).hasValue(3);
+    }
+
+    @Test
+    void shouldNotStoreResponsesMarkedNoStore() {
+        GatewayFilterChain noStoreBackend = exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().getHeaders().setCacheControl("no-store");
+            return write(exchange, "[]");
+        };
+
+        for (int i = 0; i < 2; i++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/customer/petTypes")), noStoreBackend)
+                .block();
+        }
+
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    @Test
+    void shouldKeepTheCacheOfARouteAcrossRouteRefreshes() {
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        // What a RefreshRoutesEvent does
+        filter = factory.apply(config());
+        MockServerWebExchange afterRefresh = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        assertThat(afterRefresh.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#1");
+        assertThat(backendCalls).hasValue(1);
+        assertThat(meterRegistry.find("cache.gets").tag("result", "hit").tag("route", "customers-service")
+            .functionCounters()).singleElement().satisfies(hits -> assertThat(hits.count()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldReplaceTheCacheOfARouteWhoseSettingsChanged() {
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        filter = factory.apply(config().setVaryHeaders(List.of()));
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+        exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        assertThat(backendCalls).hasValue(2);
+        // Published from the new cache only
+        assertThat(meterRegistry.find("cache.gets").tag("result", "hit").tag("route", "customers-service")
+            .functionCounters()).singleElement().satisfies(hits -> assertThat(hits.count()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldPassThroughBodiesLargerThanMaxWeight() {
+        filter = factory.apply(config().setMaxWeight(DataSize.ofBytes(10)));
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/customer/petTypes"));
+
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#1");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("[\"cat\",\"dog\"]#2");
+        assertThat(backendCalls).hasValue(2);
+    }
+
+    private static ResponseCacheGatewayFilterFactory.Config config() {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config()
+            .setPaths(List.of("/api/customer/petTypes"));
+        config.setRouteId("customers-service");
+        return config;
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        filter.filter(exchange, backend -> {
+            int call = backendCalls.incrementAndGet();
+            backend.getResponse().getHeaders().setETag("\"types\"");
+            return write(backend, "[\"cat\",\"dog\"]#" + call);
+        }).block();
+        return exchange;
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, String body) {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return exchange.getResponse().writeWith(Mono.just(
+            exchange.getResponse().bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
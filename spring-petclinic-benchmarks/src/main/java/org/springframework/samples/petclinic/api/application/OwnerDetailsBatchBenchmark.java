@@ -0,0 +1,159 @@
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.commons.http.VarintIds;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares fetching the details of {@code owners} owners through N {@link CustomersServiceClient#getOwner}
+ * plus N {@link VisitsServiceClient#getVisitsForPets} calls with the batch path, which issues one call
+ * to each service. Both backends are served by a {@link MockWebServer} that adds {@code latencyMillis}
+ * to every response to stand in for the network hop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerDetailsBatchBenchmark {
+
+    private static final String OWNER_JSON =
+        "{\"id\":%d,\"firstName\":\"George\",\"lastName\":\"Franklin\",\"address\":\"110 W. Liberty St.\","
+            + "\"city\":\"Madison\",\"telephone\":\"6085551023\",\"pets\":[{\"id\":%d,\"name\":\"Leo\","
+            + "\"birthDate\":\"2010-09-07\",\"type\":{\"name\":\"cat\"}}]}";
+
+    private static final String VISIT_JSON =
+        "{\"id\":%d,\"petId\":%d,\"date\":\"2013-01-01\",\"description\":\"rabies shot\"}";
+
+    @Param({"10", "50"})
+    int owners;
+
+    @Param({"2"})
+    long latencyMillis;
+
+    private MockWebServer server;
+
+    private CustomersServiceClient customersServiceClient;
+
+    private VisitsServiceClient visitsServiceClient;
+
+    private List<Integer> ownerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new BackendDispatcher(latencyMillis));
+        server.start();
+        String hostname = server.url("/").toString();
+        customersServiceClient = new CustomersServiceClient(WebClient.builder(), new SimpleMeterRegistry());
+        customersServiceClient.setHostname(hostname);
+        visitsServiceClient = new VisitsServiceClient(WebClient.builder(), new SimpleMeterRegistry());
+        visitsServiceClient.setHostname(hostname);
+        ownerIds = IntStream.rangeClosed(1, owners).boxed().toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public List<OwnerDetails> singleCalls() {
+        return Flux.fromIterable(ownerIds)
+            .flatMap(ownerId -> customersServiceClient.getOwner(ownerId)
+                .flatMap(owner -> visitsServiceClient.getVisitsForPets(owner.getPetIds())
+                    .map(visits -> owner)))
+            .collectList()
+            .block();
+    }
+
+    @Benchmark
+    public List<OwnerDetails> batchCall() {
+        return customersServiceClient.getOwners(ownerIds)
+            .flatMap(owners -> visitsServiceClient.getVisitsForPets(owners.stream()
+                    .flatMap(owner -> owner.getPetIds().stream())
+                    .toList())
+                .map(visits -> owners))
+            .block();
+    }
+
+    /**
+     * Serves {@code owners/{id}}, {@code owners?ownerId=} and {@code pets/visits/query}. Every owner
+     * has a single pet sharing its id, and every pet a single visit.
+     */
+    private static final class BackendDispatcher extends Dispatcher {
+
+        private final long latencyMillis;
+
+        private BackendDispatcher(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getRequestUrl().encodedPath();
+            String body;
+            if (path.equals("/owners")) {
+                body = ids(request, "ownerId")
+                    .mapToObj(id -> OWNER_JSON.formatted(id, id))
+                    .reduce((a, b) -> a + "," + b)
+                    .map(items -> "[" + items + "]")
+                    .orElse("[]");
+            } else if (path.startsWith("/owners/")) {
+                int id = Integer.parseInt(path.substring("/owners/".length()));
+                body = OWNER_JSON.formatted(id, id);
+            } else if (path.equals("/pets/visits/query")) {
+                body = varintIds(request)
+                    .mapToObj(id -> VISIT_JSON.formatted(id, id))
+                    .reduce((a, b) -> a + "," + b)
+                    .map(items -> "{\"items\":[" + items + "]}")
+                    .orElse("{\"items\":[]}");
+            } else {
+                return new MockResponse().setResponseCode(404);
+            }
+            return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS)
+                .setBody(body);
+        }
+
+        private static IntStream ids(RecordedRequest request, String name) {
+            String ids = request.getRequestUrl().queryParameter(name);
+            if (ids == null || ids.isEmpty()) {
+                return IntStream.empty();
+            }
+            return Arrays.stream(ids.split(",")).mapToInt(Integer::parseInt);
+        }
+
+        private static IntStream varintIds(RecordedRequest request) {
+            byte[] body = request.getBody().readByteArray();
+            return Arrays.stream(VarintIds.decode(body, body.length));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.springframework.samples.petclinic.api.application;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.commons.http.VarintIds;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding of the pet id list sent to visits-service by {@link VisitsServiceClient#getVisitsForPets}:
+ * the varint body of {@code POST pets/visits/query} against the former comma-separated query parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetIdsEncodingBenchmark {
+
+    @Param({"1", "10", "100"})
+    int petIds;
+
+    private List<Integer> ids;
+
+    @Setup
+    public void setUp() {
+        ids = IntStream.range(0, petIds).map(i -> i * 7 + 1).boxed().toList();
+    }
+
+    @Benchmark
+    public byte[] varint() {
+        return VarintIds.encode(ids);
+    }
+
+    @Benchmark
+    public String commaSeparated() {
+        return ids.stream().map(Object::toString).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,82 @@
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the cost of joining an owner's visits to its pets as the number of visits per owner grows.
+ * {@code nestedLoop} is the previous per-pet filter over all visits, kept here as the baseline for
+ * {@link ApiGatewayController#joinVisitsToPets}.
+ * <p>
+ * Both benchmarks fill pets they create, so that the visits do not pile up across invocations. A
+ * {@code Level.Invocation} setup would cost more than the join of a few visits itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisitsJoinBenchmark {
+
+    @Param({"5", "20"})
+    int pets;
+
+    @Param({"10", "100", "1000", "10000"})
+    int visitsPerOwner;
+
+    private List<VisitDetails> visits;
+
+    @Setup(Level.Trial)
+    public void createVisits() {
+        visits = new ArrayList<>(visitsPerOwner);
+        for (int i = 0; i < visitsPerOwner; i++) {
+            visits.add(new VisitDetails(i, i % pets, "2013-01-01", "rabies shot"));
+        }
+    }
+
+    @Benchmark
+    public List<PetDetails> nestedLoop() {
+        List<PetDetails> ownerPets = createPets();
+        ownerPets.forEach(pet -> pet.visits()
+            .addAll(visits.stream()
+                .filter(v -> v.petId() == pet.id())
+                .toList()));
+        return ownerPets;
+    }
+
+    @Benchmark
+    public List<PetDetails> hashJoin() {
+        List<PetDetails> ownerPets = createPets();
+        ApiGatewayController.joinVisitsToPets(ownerPets, visits);
+        return ownerPets;
+    }
+
+    private List<PetDetails> createPets() {
+        List<PetDetails> ownerPets = new ArrayList<>(pets);
+        for (int i = 0; i < pets; i++) {
+            ownerPets.add(PetDetails.PetDetailsBuilder.aPetDetails()
+                .id(i)
+                .name("pet" + i)
+                .visits(new ArrayList<>())
+                .build());
+        }
+        return ownerPets;
+    }
+}
@@ -0,0 +1,92 @@
+package org.springframework.samples.petclinic.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.vets.model.Vet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the payloads returned by the gateway, customers-service and vets-service, using an
+ * {@link ObjectMapper} configured with the same defaults as the one Spring Boot creates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "10"})
+    int petsPerOwner;
+
+    @Param({"5", "50"})
+    int visitsPerPet;
+
+    private ObjectWriter ownerDetailsWriter;
+
+    private ObjectWriter visitsWriter;
+
+    private ObjectWriter ownerWriter;
+
+    private ObjectWriter vetsWriter;
+
+    private OwnerDetails ownerDetails;
+
+    private Visits visits;
+
+    private Owner owner;
+
+    private List<Vet> vets;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ownerDetailsWriter = objectMapper.writerFor(OwnerDetails.class);
+        visitsWriter = objectMapper.writerFor(Visits.class);
+        ownerWriter = objectMapper.writerFor(Owner.class);
+        vetsWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Vet.class));
+        ownerDetails = PetClinicFixtures.ownerDetails(1, petsPerOwner, visitsPerPet);
+        visits = PetClinicFixtures.visits(petsPerOwner, visitsPerPet);
+        owner = PetClinicFixtures.owner(petsPerOwner);
+        vets = PetClinicFixtures.vets(6, 3);
+    }
+
+    @Benchmark
+    public byte[] ownerDetails() throws JsonProcessingException {
+        return ownerDetailsWriter.writeValueAsBytes(ownerDetails);
+    }
+
+    @Benchmark
+    public byte[] visits() throws JsonProcessingException {
+        return visitsWriter.writeValueAsBytes(visits);
+    }
+
+    @Benchmark
+    public byte[] owner() throws JsonProcessingException {
+        return ownerWriter.writeValueAsBytes(owner);
+    }
+
+    @Benchmark
+    public byte[] vets() throws JsonProcessingException {
+        return vetsWriter.writeValueAsBytes(vets);
+    }
+}
@@ -0,0 +1,137 @@
+package org.springframework.samples.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.samples.petclinic.customers.CustomersServiceApplication;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerBatchInserter;
+import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.samples.petclinic.customers.model.PetType;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to import {@code owners} owners with {@code petsPerOwner} pets each into the in-memory HSQLDB
+ * database of a customers-service context, either the way clinics were onboarded so far, with one
+ * transaction per owner and per pet through JPA, or through the {@link OwnerBatchInserter} used by
+ * {@code POST /owners/import}. The database keeps growing across iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerImportBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"1000"})
+    int owners;
+
+    @Param({"2"})
+    int petsPerOwner;
+
+    private ConfigurableApplicationContext context;
+
+    private OwnerRepository ownerRepository;
+
+    private PetRepository petRepository;
+
+    private OwnerBatchInserter ownerBatchInserter;
+
+    private PetType petType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomersServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.cloud.config.enabled=false",
+                "spring.cloud.gateway.enabled=false",
+                "eureka.client.enabled=false",
+                "spring.datasource.url=jdbc:hsqldb:mem:owner-import-benchmark",
+                "spring.sql.init.schema-locations=classpath*:db/hsqldb/schema.sql",
+                "spring.sql.init.data-locations=classpath*:db/hsqldb/data.sql",
+                "spring.jpa.hibernate.ddl-auto=none",
+                "logging.level.root=WARN")
+            .run();
+        ownerRepository = context.getBean(OwnerRepository.class);
+        petRepository = context.getBean(PetRepository.class);
+        ownerBatchInserter = context.getBean(OwnerBatchInserter.class);
+        petType = petRepository.findPetTypeById(1).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int singleRowSaves() {
+        for (int i = 0; i < owners; i++) {
+            Owner owner = ownerRepository.save(owner(i));
+            for (int j = 0; j < petsPerOwner; j++) {
+                Pet pet = pet(j);
+                pet.setOwner(owner);
+                petRepository.save(pet);
+            }
+        }
+        return owners;
+    }
+
+    @Benchmark
+    public int batchInsert() {
+        List<Owner> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < owners; i++) {
+            Owner owner = owner(i);
+            for (int j = 0; j < petsPerOwner; j++) {
+                owner.addPet(pet(j));
+            }
+            batch.add(owner);
+            if (batch.size() == BATCH_SIZE) {
+                ownerBatchInserter.insertAll(batch);
+                batch.clear();
+            }
+        }
+        ownerBatchInserter.insertAll(batch);
+        return owners;
+    }
+
+    private static Owner owner(int i) {
+        Owner owner = new Owner();
+        owner.setFirstName("First" + i);
+        owner.setLastName("Last" + i);
+        owner.setAddress(i + " Main St.");
+        owner.setCity("Madison");
+        owner.setTelephone("6085551023");
+        return owner;
+    }
+
+    private Pet pet(int j) {
+        Pet pet = new Pet();
+        pet.setName("Pet" + j);
+        pet.setBirthDate(new Date());
+        pet.setType(petType);
+        return pet;
+    }
+}
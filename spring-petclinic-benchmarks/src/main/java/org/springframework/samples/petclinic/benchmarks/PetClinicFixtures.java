@@ -0,0 +1,103 @@
+package org.springframework.samples.petclinic.benchmarks;
+
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.vets.model.Specialty;
+import org.springframework.samples.petclinic.vets.model.Vet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the domain objects and DTOs shared by the benchmarks. Names are generated in reverse
+ * order so that the sorting getters have real work to do.
+ */
+final class PetClinicFixtures {
+
+    private static final String[] SPECIALTIES = {"surgery", "radiology", "dentistry", "oncology", "dermatology"};
+
+    private PetClinicFixtures() {
+    }
+
+    static OwnerDetails ownerDetails(int ownerId, int pets, int visitsPerPet) {
+        List<PetDetails> petDetails = new ArrayList<>(pets);
+        for (int i = 0; i < pets; i++) {
+            int petId = ownerId * 1000 + i;
+            List<VisitDetails> visits = new ArrayList<>(visitsPerPet);
+            for (int j = 0; j < visitsPerPet; j++) {
+                visits.add(visit(petId * 1000 + j, petId));
+            }
+            petDetails.add(PetDetails.PetDetailsBuilder.aPetDetails()
+                .id(petId)
+                .name(petName(pets - i))
+                .birthDate("2010-09-07")
+                .type(new PetType("cat"))
+                .visits(visits)
+                .build());
+        }
+        return OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .id(ownerId)
+            .firstName("George")
+            .lastName("Franklin")
+            .address("110 W. Liberty St.")
+            .city("Madison")
+            .telephone("6085551023")
+            .pets(petDetails)
+            .build();
+    }
+
+    static Visits visits(int pets, int visitsPerPet) {
+        List<VisitDetails> items = new ArrayList<>(pets * visitsPerPet);
+        for (int i = 0; i < pets * visitsPerPet; i++) {
+            items.add(visit(i, i % pets));
+        }
+        return new Visits(items);
+    }
+
+    static VisitDetails visit(int id, int petId) {
+        return new VisitDetails(id, petId, "2013-01-01", "rabies shot");
+    }
+
+    static Owner owner(int pets) {
+        Owner owner = new Owner();
+        owner.setFirstName("George");
+        owner.setLastName("Franklin");
+        for (int i = 0; i < pets; i++) {
+            Pet pet = new Pet();
+            pet.setId(i);
+            pet.setName(petName(pets - i));
+            owner.addPet(pet);
+        }
+        return owner;
+    }
+
+    static List<Vet> vets(int count, int specialtiesPerVet) {
+        List<Vet> vets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vets.add(vet(i, specialtiesPerVet));
+        }
+        return vets;
+    }
+
+    static Vet vet(int id, int specialties) {
+        Vet vet = new Vet();
+        vet.setId(id);
+        vet.setFirstName("James");
+        vet.setLastName("Carter");
+        for (int i = 0; i < specialties; i++) {
+            Specialty specialty = new Specialty();
+            specialty.setName(SPECIALTIES[(specialties - i) % SPECIALTIES.length] + i);
+            vet.addSpecialty(specialty);
+        }
+        return vet;
+    }
+
+    private static String petName(int i) {
+        return "Pet" + i;
+    }
+}
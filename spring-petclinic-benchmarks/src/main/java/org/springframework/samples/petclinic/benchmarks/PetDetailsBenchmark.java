@@ -0,0 +1,62 @@
+package org.springframework.samples.petclinic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of {@link PetDetails}, through its builder and through Jackson, as the gateway does
+ * for every pet of a customers-service response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetDetailsBenchmark {
+
+    private static final byte[] PET_JSON = ("{\"id\":7,\"name\":\"Samantha\",\"birthDate\":\"2012-09-04\","
+        + "\"type\":{\"name\":\"cat\"}}").getBytes(StandardCharsets.UTF_8);
+
+    private final PetType cat = new PetType("cat");
+
+    private ObjectReader petDetailsReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        petDetailsReader = objectMapper.readerFor(PetDetails.class);
+    }
+
+    @Benchmark
+    public PetDetails builder() {
+        return PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(7)
+            .name("Samantha")
+            .birthDate("2012-09-04")
+            .type(cat)
+            .build();
+    }
+
+    @Benchmark
+    public PetDetails deserialize() throws IOException {
+        return petDetailsReader.readValue(PET_JSON);
+    }
+}
@@ -0,0 +1,56 @@
+package org.springframework.samples.petclinic.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.vets.model.Specialty;
+import org.springframework.samples.petclinic.vets.model.Vet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the sorted collection getters that Jackson calls on every serialization of an
+ * {@link Owner} or a {@link Vet}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedGettersBenchmark {
+
+    @Param({"1", "5", "20"})
+    int size;
+
+    private Owner owner;
+
+    private Vet vet;
+
+    @Setup
+    public void setUp() {
+        owner = PetClinicFixtures.owner(size);
+        vet = PetClinicFixtures.vet(1, size);
+    }
+
+    @Benchmark
+    public List<Pet> ownerGetPets() {
+        return owner.getPets();
+    }
+
+    @Benchmark
+    public List<Specialty> vetGetSpecialties() {
+        return vet.getSpecialties();
+    }
+}
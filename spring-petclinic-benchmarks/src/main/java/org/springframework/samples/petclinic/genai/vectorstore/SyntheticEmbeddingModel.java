@@ -0,0 +1,57 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Embeds a text without calling an LLM provider, as a point drawn around one of {@code clusters}
+ * centres picked from the text hash, like the embeddings of texts on a limited number of topics.
+ * The same text always gets the same embedding.
+ */
+class SyntheticEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+
+    private final int clusters;
+
+    SyntheticEmbeddingModel(int dimensions, int clusters) {
+        this.dimensions = dimensions;
+        this.clusters = clusters;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> texts = request.getInstructions();
+        return new EmbeddingResponse(IntStream.range(0, texts.size())
+            .mapToObj(i -> new Embedding(embed(texts.get(i)), i))
+            .toList());
+    }
+
+    @Override
+    public float[] embed(String text) {
+        SplittableRandom centre = new SplittableRandom(Math.floorMod(text.hashCode(), clusters));
+        SplittableRandom noise = new SplittableRandom(text.hashCode());
+        float[] embedding = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            embedding[i] = (float) (centre.nextGaussian() + 0.5 * noise.nextGaussian());
+        }
+        return embedding;
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+}
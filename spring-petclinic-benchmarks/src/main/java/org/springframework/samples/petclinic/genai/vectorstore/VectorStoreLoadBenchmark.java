@@ -0,0 +1,110 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Loading of the pre-embedded vets at {@code genai-service} startup: from the JSON saved by
+ * {@link SimpleVectorStore}, as {@code vectorstore.json}, and from the memory-mapped
+ * {@link VectorSnapshot} converted from it, as {@code vectorstore.bin}. The {@code parse} and
+ * {@code map} benchmarks only read the files, the others also fill the vector store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VectorStoreLoadBenchmark {
+
+    @Param({"6", "1000", "5000"})
+    int documents;
+
+    @Param({"1536"})
+    int dimensions;
+
+    private SyntheticEmbeddingModel embeddingModel;
+
+    private Path directory;
+
+    private Path json;
+
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        embeddingModel = new SyntheticEmbeddingModel(dimensions, 100);
+        directory = Files.createTempDirectory("vectorstore");
+        json = directory.resolve("vectorstore.json");
+        snapshot = directory.resolve("vectorstore.bin");
+
+        SimpleVectorStore vectorStore = new SimpleVectorStore(embeddingModel);
+        vectorStore.add(IntStream.range(0, documents)
+            .mapToObj(i -> new Document("vet-" + i, "vet " + i, Map.of("id", i)))
+            .toList());
+        vectorStore.save(json.toFile());
+        VectorSnapshotConverter.main(new String[] {json.toString(), snapshot.toString()});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(json);
+        snapshot.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+    }
+
+    @Benchmark
+    public List<Document> parseJson() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(json)) {
+            return VectorSnapshotConverter.readSimpleVectorStore(inputStream);
+        }
+    }
+
+    @Benchmark
+    public VectorSnapshot mapSnapshot() throws IOException {
+        return VectorSnapshot.map(snapshot);
+    }
+
+    @Benchmark
+    public SimpleVectorStore simpleVectorStoreFromJson() {
+        SimpleVectorStore vectorStore = new SimpleVectorStore(embeddingModel);
+        vectorStore.load(json.toFile());
+        return vectorStore;
+    }
+
+    @Benchmark
+    public HnswVectorStore hnswVectorStoreFromJson() throws IOException {
+        HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 16, 200, 64);
+        vectorStore.add(parseJson());
+        return vectorStore;
+    }
+
+    @Benchmark
+    public HnswVectorStore hnswVectorStoreFromSnapshot() throws IOException {
+        HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 16, 200, 64);
+        vectorStore.load(mapSnapshot());
+        return vectorStore;
+    }
+}
@@ -0,0 +1,182 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Top-{@code topK} similarity search among {@code vectors} documents, as done by
+ * {@code AIDataProvider.getVets}, in the {@link SimpleVectorStore} scanning every embedding and in
+ * the {@link HnswVectorStore} index. Embeddings are produced offline by a
+ * {@link SyntheticEmbeddingModel}.
+ * <p>
+ * Building the stores of a million vectors takes several minutes. The recall of the index, the share
+ * of the exact nearest neighbours it returns, is printed once it is built: run with
+ * {@code -p efSearch=16,64,256} to see it trade recall for latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=4g"})
+public class VectorStoreSearchBenchmark {
+
+    private static final int QUERIES = 1000;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Benchmark
+    public List<Document> simpleVectorStore(Dataset dataset, Simple simple, Queries queries) {
+        return simple.vectorStore.similaritySearch(queries.next(dataset));
+    }
+
+    @Benchmark
+    public List<Document> hnswVectorStore(Dataset dataset, Hnsw hnsw, Queries queries) {
+        return hnsw.vectorStore.similaritySearch(queries.next(dataset));
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"1000", "100000", "1000000"})
+        int vectors;
+
+        @Param({"256"})
+        int dimensions;
+
+        @Param({"20"})
+        int topK;
+
+        SyntheticEmbeddingModel embeddingModel;
+
+        List<SearchRequest> queries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            embeddingModel = new SyntheticEmbeddingModel(dimensions, 100);
+            queries = IntStream.range(0, QUERIES)
+                .mapToObj(i -> SearchRequest.query("question " + i).withTopK(topK))
+                .toList();
+        }
+
+        void addTo(VectorStore vectorStore) {
+            for (int from = 0; from < vectors; from += BATCH_SIZE) {
+                vectorStore.add(IntStream.range(from, Math.min(from + BATCH_SIZE, vectors))
+                    .mapToObj(i -> new Document("vet-" + i, "vet " + i, Map.of()))
+                    .toList());
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Simple {
+
+        SimpleVectorStore vectorStore;
+
+        @Setup(Level.Trial)
+        public void setUp(Dataset dataset) {
+            vectorStore = new SimpleVectorStore(dataset.embeddingModel);
+            dataset.addTo(vectorStore);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Hnsw {
+
+        @Param({"16"})
+        int m;
+
+        @Param({"100"})
+        int efConstruction;
+
+        @Param({"64"})
+        int efSearch;
+
+        HnswVectorStore vectorStore;
+
+        @Setup(Level.Trial)
+        public void setUp(Dataset dataset) {
+            vectorStore = new HnswVectorStore(dataset.embeddingModel, m, efConstruction, efSearch);
+            dataset.addTo(vectorStore);
+            System.out.printf("%nRecall@%d of the HNSW index (m=%d, efConstruction=%d, efSearch=%d) over %d vectors: %.3f%n",
+                dataset.topK, m, efConstruction, efSearch, dataset.vectors, recall(dataset, 50));
+        }
+
+        /**
+         * Share of the exact nearest neighbours of the first {@code sampled} queries found by the index.
+         * The exact ones are found in a single pass over the documents, to embed each of them only once.
+         */
+        private double recall(Dataset dataset, int sampled) {
+            List<SearchRequest> queries = dataset.queries.subList(0, sampled);
+            List<float[]> queryVectors = queries.stream()
+                .map(query -> OffHeapVectors.normalize(dataset.embeddingModel.embed(query.getQuery())))
+                .toList();
+            List<PriorityQueue<Neighbour>> exact = new ArrayList<>();
+            queries.forEach(query -> exact.add(new PriorityQueue<>(Comparator.comparingDouble(Neighbour::similarity))));
+            for (int i = 0; i < dataset.vectors; i++) {
+                float[] vector = OffHeapVectors.normalize(dataset.embeddingModel.embed("vet " + i));
+                for (int q = 0; q < sampled; q++) {
+                    exact.get(q).add(new Neighbour("vet-" + i, dot(vector, queryVectors.get(q))));
+                    if (exact.get(q).size() > dataset.topK) {
+                        exact.get(q).poll();
+                    }
+                }
+            }
+            return IntStream.range(0, sampled).mapToDouble(q -> {
+                Set<String> expected = exact.get(q).stream().map(Neighbour::id).collect(Collectors.toSet());
+                return vectorStore.similaritySearch(queries.get(q)).stream()
+                    .filter(document -> expected.contains(document.getId()))
+                    .count() / (double) expected.size();
+            }).average().orElse(0);
+        }
+
+        private static float dot(float[] a, float[] b) {
+            float sum = 0;
+            for (int i = 0; i < a.length; i++) {
+                sum += a[i] * b[i];
+            }
+            return sum;
+        }
+
+        private record Neighbour(String id, float similarity) {
+        }
+    }
+
+    /**
+     * Cycles through the queries, so that successive searches do not hit the same part of the index.
+     */
+    @State(Scope.Thread)
+    public static class Queries {
+
+        private int next;
+
+        SearchRequest next(Dataset dataset) {
+            SearchRequest query = dataset.queries.get(next);
+            next = (next + 1) % dataset.queries.size();
+            return query;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.commons.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings of the HTTP clients used to call the downstream services.
+ * An entry in {@code services} only overrides the settings it sets: the others come from {@code defaults}.
+ */
+@ConfigurationProperties(prefix = "petclinic.http-client")
+public record HttpClientProperties(
+    @DefaultValue Pool defaults,
+    @DefaultValue Map<String, PoolOverrides> services
+) {
+
+    public Pool forService(String serviceId) {
+        PoolOverrides overrides = services.get(serviceId);
+        return overrides == null ? defaults : overrides.applyTo(defaults);
+    }
+
+    public record Pool(
+        @DefaultValue("100") int maxConnections,
+        @DefaultValue("500") int pendingAcquireMaxCount,
+        @DefaultValue("5s") Duration pendingAcquireTimeout,
+        @DefaultValue("30s") Duration maxIdleTime,
+        @DefaultValue("5m") Duration maxLifeTime,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("10s") Duration responseTimeout,
+        @DefaultValue("false") boolean h2c
+    ) {
+    }
+
+    /**
+     * The {@link Pool} settings of one service, {@code null} when not set.
+     */
+    public record PoolOverrides(
+        Integer maxConnections,
+        Integer pendingAcquireMaxCount,
+        Duration pendingAcquireTimeout,
+        Duration maxIdleTime,
+        Duration maxLifeTime,
+        Duration connectTimeout,
+        Duration responseTimeout,
+        Boolean h2c
+    ) {
+
+        Pool applyTo(Pool defaults) {
+            return new Pool(
+                maxConnections != null ? maxConnections : defaults.maxConnections(),
+                pendingAcquireMaxCount != null ? pendingAcquireMaxCount : defaults.pendingAcquireMaxCount(),
+                pendingAcquireTimeout != null ? pendingAcquireTimeout : defaults.pendingAcquireTimeout(),
+                maxIdleTime != null ? maxIdleTime : defaults.maxIdleTime(),
+                maxLifeTime != null ? maxLifeTime : defaults.maxLifeTime(),
+                connectTimeout != null ? connectTimeout : defaults.connectTimeout(),
+                responseTimeout != null ? responseTimeout : defaults.responseTimeout(),
+                h2c != null ? h2c : defaults.h2c());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.commons.http;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Builds the bounded Reactor Netty connection pool of a downstream service, and the {@link WebClient.Builder}
+ * calling it, from its {@link HttpClientProperties.Pool} settings.
+ * <p>
+ * Pool metrics are published to Micrometer under {@code reactor.netty.connection.provider.*}
+ * (active, idle, pending and total connections), tagged with the service id as pool name.
+ */
+public final class ServiceHttpClients {
+
+    private ServiceHttpClients() {
+    }
+
+    public static ConnectionProvider connectionProvider(String serviceId, HttpClientProperties.Pool pool) {
+        return ConnectionProvider.builder(serviceId)
+            .maxConnections(pool.maxConnections())
+            .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+            .maxIdleTime(pool.maxIdleTime())
+            .maxLifeTime(pool.maxLifeTime())
+            .evictInBackground(pool.maxIdleTime())
+            .metrics(true)
+            .build();
+    }
+
+    public static WebClient.Builder webClientBuilder(ConnectionProvider connectionProvider,
+                                                     HttpClientProperties.Pool pool) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.connectTimeout().toMillis())
+            .keepAlive(true)
+            .responseTimeout(pool.responseTimeout());
+        if (pool.h2c()) {
+            // Prior knowledge is not assumed: HTTP/1.1 connections are upgraded when the service supports it
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.commons.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Body format of a list of IDs sent between services: a sequence of unsigned LEB128 varints, so that
+ * small IDs take a single byte on the wire and no text parsing is needed. An ID takes at most
+ * {@value #MAX_BYTES_PER_ID} bytes.
+ */
+public final class VarintIds {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.petclinic.varint-ids";
+
+    public static final int MAX_BYTES_PER_ID = 5;
+
+    private VarintIds() {
+    }
+
+    public static byte[] encode(int[] ids) {
+        byte[] body = new byte[ids.length * MAX_BYTES_PER_ID];
+        int position = 0;
+        for (int id : ids) {
+            position = write(id, body, position);
+        }
+        return Arrays.copyOf(body, position);
+    }
+
+    public static byte[] encode(List<Integer> ids) {
+        return encode(ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Reads and decodes a body of at most {@code maxIds} IDs. Reading stops as soon as the body is longer
+     * than that many IDs can be, so an oversized body is never buffered whole.
+     *
+     * @throws IllegalArgumentException if the body is malformed or holds more than {@code maxIds} IDs
+     */
+    public static int[] decode(InputStream body, int maxIds) throws IOException {
+        int maxBytes = maxIds * MAX_BYTES_PER_ID;
+        byte[] bytes = body.readNBytes(maxBytes + 1);
+        if (bytes.length > maxBytes) {
+            throw tooManyIds(maxIds);
+        }
+        return decode(bytes, maxIds);
+    }
+
+    /**
+     * Decodes a body written by {@link #encode}.
+     *
+     * @throws IllegalArgumentException if the body ends in the middle of a varint, a varint exceeds 32 bits
+     *                                  or the body holds more than {@code maxIds} IDs
+     */
+    public static int[] decode(byte[] body, int maxIds) {
+        int[] ids = new int[Math.min(body.length, 64)];
+        int count = 0;
+        int position = 0;
+        while (position < body.length) {
+            int start = position;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position == body.length) {
+                    throw new IllegalArgumentException("Malformed varint at byte " + start);
+                }
+                b = body[position++];
+                // The fifth byte only carries the 4 high bits of an int, and ends the varint
+                if (shift == 28 && (b & 0xF0) != 0) {
+                    throw new IllegalArgumentException("Varint exceeding 32 bits at byte " + start);
+                }
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (count == maxIds) {
+                throw tooManyIds(maxIds);
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(body.length, ids.length * 2));
+            }
+            ids[count++] = value;
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static int write(int value, byte[] body, int position) {
+        while ((value & ~0x7F) != 0) {
+            body[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        body[position++] = (byte) value;
+        return position;
+    }
+
+    private static IllegalArgumentException tooManyIds(int maxIds) {
+        return new IllegalArgumentException("At most " + maxIds + " ids can be sent at once");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.commons.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+/**
+ * Publishes how long virtual threads stay pinned to their carrier thread as the {@code jvm.threads.virtual.pinned}
+ * timer, from the JFR {@code jdk.VirtualThreadPinned} events lasting longer than
+ * {@code petclinic.virtual-threads.pinned-threshold}.
+ * <p>
+ * A virtual thread is pinned when it blocks inside a {@code synchronized} block, such as the ones of the HSQLDB
+ * engine behind the repositories, and then holds a carrier thread for the whole blocking call. Start the JVM
+ * with {@code -Djdk.tracePinnedThreads=short} to log the offending frames. Only active with {@code
+ * spring.threads.virtual.enabled} on Java 21 or later.
+ * <p>
+ * Shared by the JDBC services, which register it with {@code @Import}.
+ */
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMetrics implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Timer pinned;
+
+    private final Duration threshold;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMetrics(MeterRegistry registry,
+                                       @Value("${petclinic.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Time virtual threads spent pinned to their carrier thread while blocked")
+            .register(registry);
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold);
+        recordingStream.onEvent(PINNED_EVENT, event -> pinned.record(event.getDuration()));
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        recordingStream.close();
+        recordingStream = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+}
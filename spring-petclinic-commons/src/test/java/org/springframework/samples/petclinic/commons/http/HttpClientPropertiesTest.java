@@ -0,0 +1,43 @@
+package org.springframework.samples.petclinic.commons.http;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientPropertiesTest {
+
+    @Test
+    void serviceSettingsOverrideOnlyWhatTheySet() {
+        HttpClientProperties properties = bind(Map.of(
+            "petclinic.http-client.defaults.max-connections", "50",
+            "petclinic.http-client.defaults.response-timeout", "3s",
+            "petclinic.http-client.services.customers-service.max-connections", "7",
+            "petclinic.http-client.services.customers-service.h2c", "true"));
+
+        HttpClientProperties.Pool customers = properties.forService("customers-service");
+
+        assertThat(customers.maxConnections()).isEqualTo(7);
+        assertThat(customers.h2c()).isTrue();
+        assertThat(customers.responseTimeout()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(customers.pendingAcquireMaxCount()).isEqualTo(500);
+    }
+
+    @Test
+    void servicesWithoutSettingsUseTheDefaults() {
+        HttpClientProperties properties = bind(Map.of("petclinic.http-client.defaults.max-connections", "50"));
+
+        assertThat(properties.forService("visits-service")).isEqualTo(properties.defaults());
+        assertThat(properties.defaults().maxConnections()).isEqualTo(50);
+        assertThat(properties.defaults().responseTimeout()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    private static HttpClientProperties bind(Map<String, String> settings) {
+        return new Binder(new MapConfigurationPropertySource(settings))
+            .bindOrCreate("petclinic.http-client", HttpClientProperties.class);
+    }
+}
@@ -0,0 +1,52 @@
+package org.springframework.samples.petclinic.commons.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class VarintIdsTest {
+
+    @Test
+    void decodesTheEncodedIds() {
+        int[] ids = {0, 111, 222, 16_384, Integer.MAX_VALUE, -1};
+
+        byte[] body = VarintIds.encode(ids);
+
+        assertThat(VarintIds.decode(body, ids.length)).containsExactly(ids);
+        assertThat(VarintIds.encode(List.of(111, 222))).containsExactly(111, 0xDE, 0x01);
+    }
+
+    @Test
+    void rejectsAVarintExceeding32Bits() {
+        // 2^32: the fifth byte carries a bit above the 4 an int has left
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> VarintIds.decode(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10}, 1));
+        // A continuation bit on the fifth byte
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> VarintIds.decode(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x8F, 0x00}, 2));
+    }
+
+    @Test
+    void rejectsATruncatedVarint() {
+        assertThatIllegalArgumentException().isThrownBy(() -> VarintIds.decode(new byte[]{(byte) 0xDE}, 1));
+    }
+
+    @Test
+    void rejectsMoreIdsThanTheMaximum() {
+        assertThatIllegalArgumentException().isThrownBy(() -> VarintIds.decode(new byte[]{1, 2, 3}, 2));
+    }
+
+    @Test
+    void stopsReadingOnceTheBodyExceedsTheMaximum() throws IOException {
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[1000]);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> VarintIds.decode(body, 10));
+
+        assertThat(body.available()).isEqualTo(1000 - 10 * VarintIds.MAX_BYTES_PER_ID - 1);
+    }
+}
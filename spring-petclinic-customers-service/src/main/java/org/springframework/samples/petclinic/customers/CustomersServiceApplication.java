@@ -18,12 +18,15 @@ package org.springframework.samples.petclinic.customers;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.commons.metrics.VirtualThreadPinningMetrics;
 
 /**
  * @author Maciej Szarlinski
  */
 @EnableDiscoveryClient
 @SpringBootApplication
+@Import(VirtualThreadPinningMetrics.class)
 public class CustomersServiceApplication {
 
 	public static void main(String[] args) {
@@ -15,11 +15,11 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.core.style.ToStringCreator;
 
 import java.util.*;
@@ -36,8 +36,19 @@ import java.util.*;
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraph(name = Owner.WITH_PETS,
+    attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pets"),
+    subgraphs = @NamedSubgraph(name = "pets", attributeNodes = @NamedAttributeNode("type")))
 public class Owner {
 
+    /**
+     * Entity graph loading the pets of the owners, and their types, in the same query as the owners.
+     */
+    public static final String WITH_PETS = "Owner.pets";
+
+    private static final Comparator<Pet> PET_NAME_ORDER =
+        Comparator.comparing(Pet::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -63,9 +74,24 @@ public class Owner {
     @Digits(fraction = 0, integer = 12)
     private String telephone;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, mappedBy = "owner")
+    @Version
+    @JsonIgnore
+    private Integer version;
+
+    /**
+     * Loaded through the {@link #WITH_PETS} graph, or otherwise in batches for the owners of a persistence context.
+     */
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "owner")
+    @BatchSize(size = 100)
     private Set<Pet> pets;
 
+    /**
+     * Pets sorted by name, with the collection they were sorted from. Built on first access, and rebuilt
+     * when a pet is added, when Hibernate replaced the collection, or when a renamed pet is out of order.
+     */
+    @Transient
+    private SortedPets sortedPets;
+
     protected Set<Pet> getPetsInternal() {
         if (this.pets == null) {
             this.pets = new HashSet<>();
@@ -74,14 +100,19 @@ public class Owner {
     }
 
     public List<Pet> getPets() {
-        final List<Pet> sortedPets = new ArrayList<>(getPetsInternal());
-        PropertyComparator.sort(sortedPets, new MutableSortDefinition("name", true, true));
-        return Collections.unmodifiableList(sortedPets);
+        Set<Pet> pets = getPetsInternal();
+        SortedPets sorted = this.sortedPets;
+        if (sorted == null || !sorted.isSortedViewOf(pets)) {
+            sorted = new SortedPets(pets, pets.stream().sorted(PET_NAME_ORDER).toList());
+            this.sortedPets = sorted;
+        }
+        return sorted.pets();
     }
 
     public void addPet(Pet pet) {
         getPetsInternal().add(pet);
         pet.setOwner(this);
+        this.sortedPets = null;
     }
 
     @Override
@@ -120,6 +151,10 @@ public class Owner {
         return this.telephone;
     }
 
+    public Integer getVersion() {
+        return this.version;
+    }
+
     public void setFirstName(String firstName) {
         this.firstName = firstName;
     }
@@ -139,4 +174,25 @@ public class Owner {
     public void setTelephone(String telephone) {
         this.telephone = telephone;
     }
+
+    /**
+     * Immutable, so that an owner shared between threads never exposes a list sorted from another collection.
+     */
+    private record SortedPets(Set<Pet> source, List<Pet> pets) {
+
+        /**
+         * Checked on every access without allocating: the same collection, of the same size, still in name order.
+         */
+        boolean isSortedViewOf(Set<Pet> collection) {
+            if (source != collection || pets.size() != collection.size()) {
+                return false;
+            }
+            for (int i = 1; i < pets.size(); i++) {
+                if (PET_NAME_ORDER.compare(pets.get(i - 1), pets.get(i)) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
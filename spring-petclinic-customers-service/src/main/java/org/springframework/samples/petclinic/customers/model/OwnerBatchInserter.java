@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inserts new {@link Owner}s and their pets with JDBC batches, bypassing the persistence context.
+ * Hibernate cannot batch inserts into {@code IDENTITY} columns, since it needs each generated id
+ * right away; here all the owners of a call are inserted in one batch, their generated ids are read
+ * back at once, and the pets follow in a second batch.
+ * <p>
+ * With MySQL, the {@code rewriteBatchedStatements} driver property set by the {@code mysql} profile
+ * turns each batch into multi-row {@code INSERT} statements.
+ */
+@Repository
+public class OwnerBatchInserter {
+
+    private static final String INSERT_OWNER = """
+        INSERT INTO owners (first_name, last_name, address, city, telephone, version) VALUES (?, ?, ?, ?, ?, 0)""";
+
+    private static final String INSERT_PET = """
+        INSERT INTO pets (name, birth_date, type_id, owner_id, version) VALUES (?, ?, ?, ?, 0)""";
+
+    private static final int[] PET_ARG_TYPES = {Types.VARCHAR, Types.DATE, Types.INTEGER, Types.INTEGER};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OwnerBatchInserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the given owners and their pets in a single transaction. Every pet must have a type.
+     * @param owners new owners, never persisted
+     * @return the generated ids of the owners, in the order of the given list
+     */
+    @Transactional
+    public int[] insertAll(List<Owner> owners) {
+        if (owners.isEmpty()) {
+            return new int[0];
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(INSERT_OWNER, new String[]{"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Owner owner = owners.get(i);
+                    ps.setString(1, owner.getFirstName());
+                    ps.setString(2, owner.getLastName());
+                    ps.setString(3, owner.getAddress());
+                    ps.setString(4, owner.getCity());
+                    ps.setString(5, owner.getTelephone());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return owners.size();
+                }
+            },
+            keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != owners.size()) {
+            throw new IncorrectResultSizeDataAccessException("Generated owner ids", owners.size(), keys.size());
+        }
+        int[] ownerIds = new int[owners.size()];
+        List<Object[]> pets = new ArrayList<>();
+        for (int i = 0; i < ownerIds.length; i++) {
+            // The name of the generated key column depends on the driver
+            ownerIds[i] = ((Number) keys.get(i).values().iterator().next()).intValue();
+            for (Pet pet : owners.get(i).getPets()) {
+                pets.add(new Object[]{pet.getName(), pet.getBirthDate(), pet.getType().getId(), ownerIds[i]});
+            }
+        }
+        if (!pets.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PET, pets, PET_ARG_TYPES);
+        }
+        return ownerIds;
+    }
+}
@@ -15,7 +15,22 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Owner</code> domain objects All method names are compliant with Spring Data naming
@@ -27,4 +42,98 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author Michael Isvy
  * @author Maciej Szarlinski
  */
-public interface OwnerRepository extends JpaRepository<Owner, Integer> { }
+public interface OwnerRepository extends JpaRepository<Owner, Integer> {
+
+    /**
+     * Retrieve an {@link Owner} with its pets and their types in a single query.
+     */
+    @Override
+    @EntityGraph(Owner.WITH_PETS)
+    Optional<Owner> findById(Integer id);
+
+    /**
+     * Retrieve all {@link Owner}s with their pets and pet types in a single query.
+     */
+    @Override
+    @EntityGraph(Owner.WITH_PETS)
+    List<Owner> findAll();
+
+    @Override
+    @EntityGraph(Owner.WITH_PETS)
+    List<Owner> findAllById(Iterable<Integer> ids);
+
+    /**
+     * Retrieve the {@link Owner}s whose id follows the given one, in id order (keyset pagination).
+     * The pets are not fetched with the owners, since the limit could then not be applied by the database:
+     * they are loaded in batches when first accessed.
+     * @param id the last owner id the client has already seen, 0 for the first page
+     * @param limit the maximum number of owners to return
+     * @return a page of {@link Owner}s
+     */
+    List<Owner> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    /**
+     * Retrieve a page of the {@link Owner}s whose last name starts with the given prefix. The prefix is matched
+     * with {@code LIKE 'prefix%'}, so that the query is served by the {@code last_name} index, and ignoring case
+     * through the collation of that column: {@code VARCHAR_IGNORECASE} in HSQLDB, the default {@code _ci}
+     * collations in MySQL.
+     * Like {@link #findByIdGreaterThanOrderByIdAsc}, the pets are loaded in batches when first accessed.
+     * @param lastName the last name prefix, with any LIKE wildcard escaped
+     * @param pageable the page to return and its ordering
+     * @return a page of {@link Owner}s, telling whether a next page exists without counting all matches
+     */
+    Slice<Owner> findByLastNameStartingWith(String lastName, Pageable pageable);
+
+    /**
+     * Stream all {@link Owner}s in id order, with their pets and pet types fetched by the same query: owners
+     * detached once written could not have their pets loaded in batches. Ordering by id keeps the rows of
+     * an owner together, so each owner is emitted once. The stream must be consumed within a transaction
+     * and closed after use.
+     * @return a Stream of {@link Owner}s backed by an open JDBC cursor
+     */
+    @Query("SELECT owner FROM Owner owner ORDER BY owner.id")
+    @EntityGraph(Owner.WITH_PETS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<Owner> streamAll();
+
+    /**
+     * Retrieve a stamp of the versions of an {@link Owner} and of its pets, without loading them.
+     * Owners and pets are never deleted and every update increments their version, so the stamp changes
+     * whenever the owner, one of its pets, or the number of its pets changes.
+     * @param ownerId the id of the owner
+     * @return the version stamp, or empty if the owner does not exist
+     */
+    @Query("""
+        SELECT CONCAT(str(owner.version), '.', str(COUNT(pet)), '.', str(COALESCE(SUM(pet.version), 0)))
+        FROM Owner owner LEFT JOIN owner.pets pet
+        WHERE owner.id = :ownerId
+        GROUP BY owner.id, owner.version""")
+    Optional<String> findVersionStampById(@Param("ownerId") int ownerId);
+
+    /**
+     * Retrieve a stamp of the versions of all {@link Owner}s and pets, without loading them.
+     * @return a stamp that changes whenever an owner or a pet is created or updated
+     */
+    @Query("""
+        SELECT CONCAT(str(COUNT(owner)), '.', str(COALESCE(SUM(owner.version), 0)), '.',
+            str((SELECT COUNT(pet) FROM Pet pet)), '.', str((SELECT COALESCE(SUM(pet.version), 0) FROM Pet pet)))
+        FROM Owner owner""")
+    String findVersionStamp();
+
+    /**
+     * Update the fields of an {@link Owner} in a single statement, provided that its version is still the given
+     * one, and increment that version.
+     * @return 1 if the owner was updated, 0 if it does not exist or its version has changed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Owner owner
+        SET owner.firstName = :firstName, owner.lastName = :lastName, owner.address = :address,
+            owner.city = :city, owner.telephone = :telephone, owner.version = owner.version + 1
+        WHERE owner.id = :ownerId AND owner.version = :version""")
+    int updateIfVersionMatches(@Param("ownerId") int ownerId, @Param("version") int version,
+                               @Param("firstName") String firstName, @Param("lastName") String lastName,
+                               @Param("address") String address, @Param("city") String city,
+                               @Param("telephone") String telephone);
+}
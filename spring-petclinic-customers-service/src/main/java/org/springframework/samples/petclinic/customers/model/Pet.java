@@ -45,15 +45,19 @@ public class Pet {
     @Temporal(TemporalType.DATE)
     private Date birthDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "type_id")
     private PetType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     @JsonIgnore
     private Owner owner;
 
+    @Version
+    @JsonIgnore
+    private Integer version;
+
     @Override
     public String toString() {
         return new ToStringCreator(this)
@@ -86,6 +90,10 @@ public class Pet {
         return this.owner;
     }
 
+    public Integer getVersion() {
+        return this.version;
+    }
+
     public void setId(Integer id) {
         this.id = id;
     }
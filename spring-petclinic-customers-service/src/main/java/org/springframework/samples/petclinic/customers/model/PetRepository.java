@@ -15,12 +15,16 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Pet</code> domain objects All method names are compliant with Spring Data naming
@@ -44,6 +48,47 @@ public interface PetRepository extends JpaRepository<Pet, Integer> {
     @Query("FROM PetType ptype WHERE ptype.id = :typeId")
     Optional<PetType> findPetTypeById(@Param("typeId") int typeId);
 
+    /**
+     * Retrieve a {@link Pet} along with its type and owner.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"type", "owner"})
+    Optional<Pet> findById(Integer id);
+
+    /**
+     * Retrieve the details of a {@link Pet} shown on its own page, without loading the owner entity and its pets.
+     * @param petId the id of the pet
+     * @return the pet details, or empty if the pet does not exist
+     */
+    @Query("""
+        SELECT new org.springframework.samples.petclinic.customers.model.PetView(
+            pet.id, pet.name, pet.birthDate, ptype, owner.firstName, owner.lastName, pet.version, owner.version)
+        FROM Pet pet JOIN pet.owner owner LEFT JOIN pet.type ptype
+        WHERE pet.id = :petId""")
+    Optional<PetView> findViewById(@Param("petId") int petId);
+
+    /**
+     * Retrieve a stamp of the versions of a {@link Pet} and of its owner, whose name is part of the pet details.
+     * @param petId the id of the pet
+     * @return the version stamp, or empty if the pet does not exist
+     */
+    @Query("SELECT CONCAT(str(pet.version), '.', str(pet.owner.version)) FROM Pet pet WHERE pet.id = :petId")
+    Optional<String> findVersionStampById(@Param("petId") int petId);
+
+    /**
+     * Update the fields of a {@link Pet} in a single statement, provided that its version is still the given one,
+     * and increment that version.
+     * @return 1 if the pet was updated, 0 if it does not exist or its version has changed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Pet pet
+        SET pet.name = :name, pet.birthDate = :birthDate, pet.type = :type, pet.version = pet.version + 1
+        WHERE pet.id = :petId AND pet.version = :version""")
+    int updateIfVersionMatches(@Param("petId") int petId, @Param("version") int version,
+                               @Param("name") String name, @Param("birthDate") Date birthDate,
+                               @Param("type") PetType type);
 
 }
 
@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers an update that lost a race on the version of an owner or pet, detected by Hibernate when the
+ * entity is flushed, like a failed {@code If-Match}: with a {@link PreconditionFailedException} status.
+ */
+@RestControllerAdvice
+class OptimisticLockingFailureAdvice {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ProblemDetail handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+            "The resource has been modified concurrently, read it again before updating it");
+    }
+}
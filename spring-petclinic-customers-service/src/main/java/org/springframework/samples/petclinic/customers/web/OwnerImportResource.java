@@ -0,0 +1,294 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerBatchInserter;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of owners with their pets, used to onboard a clinic in one request instead of replaying
+ * {@code POST /owners} and {@code POST /owners/{ownerId}/pets} for every record.
+ * <p>
+ * The body is read line by line, one owner per line, either as newline-delimited JSON:
+ * <pre>
+ * {"firstName":"George","lastName":"Franklin","address":"110 W. Liberty St.","city":"Madison",
+ *  "telephone":"6085551023","pets":[{"name":"Leo","birthDate":"2010-09-07","typeId":1}]}
+ * </pre>
+ * or as CSV, with an optional header line starting with a first name column, and the pets as trailing
+ * {@code name,birthDate,typeId} groups:
+ * <pre>
+ * George,Franklin,110 W. Liberty St.,Madison,6085551023,Leo,2010-09-07,1
+ * </pre>
+ * Valid rows are written {@link #BATCH_SIZE} owners at a time by the {@link OwnerBatchInserter}. Invalid
+ * rows are reported with their line number and skipped, as are the rows the database rejects.
+ */
+@RestController
+@Timed("petclinic.owner")
+class OwnerImportResource {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    static final int BATCH_SIZE = 500;
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int CSV_OWNER_COLUMNS = 5;
+
+    private static final int CSV_PET_COLUMNS = 3;
+
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerImportResource.class);
+
+    private final OwnerBatchInserter ownerBatchInserter;
+    private final PetTypeIndex petTypeIndex;
+    private final Validator validator;
+    private final ObjectReader rowReader;
+
+    OwnerImportResource(OwnerBatchInserter ownerBatchInserter, PetTypeIndex petTypeIndex,
+                        Validator validator, ObjectMapper objectMapper) {
+        this.ownerBatchInserter = ownerBatchInserter;
+        this.petTypeIndex = petTypeIndex;
+        this.validator = validator;
+        this.rowReader = objectMapper.readerFor(OwnerImportRow.class);
+    }
+
+    @PostMapping(value = "/owners/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public OwnerImportResult importNdjson(InputStream body) throws IOException {
+        return importOwners(body, false);
+    }
+
+    @PostMapping(value = "/owners/import", consumes = TEXT_CSV_VALUE)
+    public OwnerImportResult importCsv(InputStream body) throws IOException {
+        return importOwners(body, true);
+    }
+
+    private OwnerImportResult importOwners(InputStream body, boolean csv) throws IOException {
+        Progress progress = new Progress();
+        List<Owner> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchLines = new ArrayList<>(BATCH_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+                line = line.substring(BYTE_ORDER_MARK.length());
+            }
+            if (line.isBlank() || (csv && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+            try {
+                OwnerImportRow row = csv ? parseCsv(line) : rowReader.readValue(line);
+                batch.add(toOwner(row));
+                batchLines.add(lineNumber);
+            } catch (JsonProcessingException ex) {
+                progress.reject(lineNumber, ex.getOriginalMessage());
+            } catch (IllegalArgumentException ex) {
+                progress.reject(lineNumber, ex.getMessage());
+            }
+            if (batch.size() == BATCH_SIZE) {
+                write(batch, batchLines, progress);
+            }
+        }
+        write(batch, batchLines, progress);
+        log.info("Imported {} owners and {} pets, rejected {} rows", progress.owners, progress.pets, progress.rejected);
+        return new OwnerImportResult(progress.owners, progress.pets, progress.rejected, progress.errors);
+    }
+
+    /**
+     * Write a batch, then clear it. When the database rejects the batch, its rows are written one by one
+     * so that only the faulty ones are reported.
+     */
+    private void write(List<Owner> batch, List<Integer> batchLines, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            ownerBatchInserter.insertAll(batch);
+            batch.forEach(progress::imported);
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} owners rejected, retrying row by row", batch.size(), batchFailure);
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    ownerBatchInserter.insertAll(List.of(batch.get(i)));
+                    progress.imported(batch.get(i));
+                } catch (DataAccessException ex) {
+                    progress.reject(batchLines.get(i), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private Owner toOwner(OwnerImportRow row) {
+        OwnerRequest request = new OwnerRequest(row.firstName(), row.lastName(), row.address(), row.city(), row.telephone());
+        Set<ConstraintViolation<OwnerRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        }
+        Owner owner = new Owner();
+        owner.setFirstName(request.firstName());
+        owner.setLastName(request.lastName());
+        owner.setAddress(request.address());
+        owner.setCity(request.city());
+        owner.setTelephone(request.telephone());
+        if (row.pets() != null) {
+            for (OwnerImportRow.PetRow petRow : row.pets()) {
+                if (petRow.name() == null || petRow.name().isBlank()) {
+                    throw new IllegalArgumentException("pet name must not be blank");
+                }
+                PetType type = petTypeIndex.findById(petRow.typeId())
+                    .orElseThrow(() -> new IllegalArgumentException("unknown pet type " + petRow.typeId()));
+                Pet pet = new Pet();
+                pet.setName(petRow.name());
+                pet.setBirthDate(petRow.birthDate());
+                pet.setType(type);
+                owner.addPet(pet);
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * A header line names the first name column first, in any case and spelling: {@code firstName},
+     * {@code first_name}, {@code "First Name"}...
+     */
+    static boolean isCsvHeader(String line) {
+        int end = line.indexOf(',');
+        String firstColumn = (end < 0 ? line : line.substring(0, end)).replaceAll("[\\s\"_-]", "");
+        return firstColumn.equalsIgnoreCase("firstName");
+    }
+
+    private static OwnerImportRow parseCsv(String line) {
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() < CSV_OWNER_COLUMNS || (columns.size() - CSV_OWNER_COLUMNS) % CSV_PET_COLUMNS != 0) {
+            throw new IllegalArgumentException("expected " + CSV_OWNER_COLUMNS + " owner columns followed by groups of "
+                + CSV_PET_COLUMNS + " pet columns, got " + columns.size() + " columns");
+        }
+        List<OwnerImportRow.PetRow> pets = new ArrayList<>();
+        for (int i = CSV_OWNER_COLUMNS; i < columns.size(); i += CSV_PET_COLUMNS) {
+            pets.add(new OwnerImportRow.PetRow(columns.get(i), parseDate(columns.get(i + 1)), parseTypeId(columns.get(i + 2))));
+        }
+        return new OwnerImportRow(columns.get(0), columns.get(1), columns.get(2), columns.get(3), columns.get(4), pets);
+    }
+
+    private static Date parseDate(String value) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Date.valueOf(LocalDate.parse(value.trim()));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("invalid pet birth date " + value);
+        }
+    }
+
+    private static int parseTypeId(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid pet type id " + value);
+        }
+    }
+
+    /**
+     * Split a CSV line on commas. A column may be enclosed in double quotes, in which case it can contain
+     * commas and doubled double quotes.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted column");
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private static final class Progress {
+
+        private int owners;
+        private int pets;
+        private int rejected;
+        private final List<OwnerImportResult.RowError> errors = new ArrayList<>();
+
+        void imported(Owner owner) {
+            owners++;
+            pets += owner.getPets().size();
+        }
+
+        void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new OwnerImportResult.RowError(line, message));
+            }
+        }
+    }
+}
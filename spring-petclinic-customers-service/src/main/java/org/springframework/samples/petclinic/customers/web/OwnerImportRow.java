@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.web;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An owner and its pets, as one line of an owner import.
+ */
+record OwnerImportRow(
+    String firstName,
+    String lastName,
+    String address,
+    String city,
+    String telephone,
+    List<PetRow> pets
+) {
+
+    record PetRow(
+        String name,
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        Date birthDate,
+        int typeId
+    ) {
+    }
+}
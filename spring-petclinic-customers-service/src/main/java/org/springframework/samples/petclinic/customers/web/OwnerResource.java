@@ -15,19 +15,35 @@
  */
 package org.springframework.samples.petclinic.customers.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.customers.web.mapper.OwnerEntityMapper;
 import org.springframework.samples.petclinic.customers.model.Owner;
 import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * @author Juergen Hoeller
@@ -43,12 +59,21 @@ class OwnerResource {
 
     private static final Logger log = LoggerFactory.getLogger(OwnerResource.class);
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final Sort LAST_NAME_ORDER = Sort.by("lastName", "firstName", "id");
+
     private final OwnerRepository ownerRepository;
     private final OwnerEntityMapper ownerEntityMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter ndjsonWriter;
 
-    OwnerResource(OwnerRepository ownerRepository, OwnerEntityMapper ownerEntityMapper) {
+    OwnerResource(OwnerRepository ownerRepository, OwnerEntityMapper ownerEntityMapper,
+                  EntityManager entityManager, ObjectMapper objectMapper) {
         this.ownerRepository = ownerRepository;
         this.ownerEntityMapper = ownerEntityMapper;
+        this.entityManager = entityManager;
+        this.ndjsonWriter = objectMapper.writerFor(Owner.class).withRootValueSeparator("\n");
     }
 
     /**
@@ -62,27 +87,120 @@ class OwnerResource {
     }
 
     /**
-     * Read single Owner
+     * Read single Owner. A conditional request whose ETag is still current gets a 304 answered from the
+     * version columns only, without loading the owner and its pets.
      */
     @GetMapping(value = "/{ownerId}")
-    public Optional<Owner> findOwner(@PathVariable("ownerId") @Min(1) int ownerId) {
-        return ownerRepository.findById(ownerId);
+    public Optional<Owner> findOwner(@PathVariable("ownerId") @Min(1) int ownerId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> versionStamp = ownerRepository.findVersionStampById(ownerId);
+            if (versionStamp.isPresent() && request.checkNotModified(versionStamp.get())) {
+                return null;
+            }
+        }
+        Optional<Owner> owner = ownerRepository.findById(ownerId);
+        if (owner.isPresent() && request.checkNotModified(VersionStamps.of(owner.get()))) {
+            return null;
+        }
+        return owner;
     }
 
     /**
-     * Read List of Owners
+     * Read List of Owners, with the same conditional request handling as {@link #findOwner}
      */
     @GetMapping
-    public List<Owner> findAll() {
-        return ownerRepository.findAll();
+    public List<Owner> findAll(WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String versionStamp = ownerRepository.findVersionStamp();
+            if (versionStamp != null && request.checkNotModified(versionStamp)) {
+                return null;
+            }
+        }
+        List<Owner> owners = ownerRepository.findAll();
+        return request.checkNotModified(VersionStamps.of(owners)) ? null : owners;
+    }
+
+    /**
+     * Read the Owners matching a list of ids in a single query
+     */
+    @GetMapping(params = "ownerId")
+    public List<Owner> findAllById(@RequestParam("ownerId") List<Integer> ownerIds) {
+        return ownerRepository.findAllById(ownerIds);
+    }
+
+    /**
+     * Read a page of Owners ordered by id, starting after the given owner id.
+     * The id of the last owner returned is the {@code after} value of the next page.
+     * A limit above {@link #MAX_PAGE_SIZE} is lowered to it.
+     */
+    @GetMapping(params = "limit")
+    public List<Owner> findPage(@RequestParam(name = "after", defaultValue = "0") int after,
+                                @RequestParam("limit") @Min(1) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ownerRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+    }
+
+    /**
+     * Search the Owners whose last name starts with the given prefix, ignoring case, ordered by name, one page
+     * at a time. An empty prefix pages through all the owners. A size above {@link #MAX_PAGE_SIZE} is lowered
+     * to it.
+     */
+    @GetMapping(params = "lastName")
+    public OwnersPage findByLastName(@RequestParam("lastName") String lastName,
+                                     @RequestParam(name = "page", defaultValue = "0") @Min(0) int page,
+                                     @RequestParam(name = "size", defaultValue = "20") @Min(1) int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Slice<Owner> owners = ownerRepository.findByLastNameStartingWith(lastName.trim(),
+            PageRequest.of(Math.max(0, page), pageSize, LAST_NAME_ORDER));
+        return new OwnersPage(owners.getContent(), owners.getNumber(), owners.getSize(), owners.hasNext());
+    }
+
+    /**
+     * Stream all Owners as newline-delimited JSON, one owner per line.
+     * Owners are read through a database cursor and written as they arrive,
+     * so memory usage does not grow with the number of owners.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (Stream<Owner> owners = ownerRepository.streamAll();
+             SequenceWriter writer = ndjsonWriter.writeValues(response.getOutputStream())) {
+            Iterator<Owner> iterator = owners.iterator();
+            while (iterator.hasNext()) {
+                Owner owner = iterator.next();
+                writer.write(owner);
+                // Written owners are no longer needed: keep the persistence context from growing
+                entityManager.detach(owner);
+            }
+        }
     }
 
     /**
-     * Update Owner
+     * Update Owner. With an {@code If-Match} header holding an ETag of the owner, the update is a single
+     * conditional statement on the owner version, and a concurrent modification of the owner is answered
+     * with a 412. Changes to the pets of the owner do not conflict with this update. Without the header, an
+     * update racing another one fails on the version check when flushed, also answered with a 412.
      */
     @PutMapping(value = "/{ownerId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateOwner(@PathVariable("ownerId") @Min(1) int ownerId, @Valid @RequestBody OwnerRequest ownerRequest) {
+    public void updateOwner(@PathVariable("ownerId") @Min(1) int ownerId, @Valid @RequestBody OwnerRequest ownerRequest,
+                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            int version = VersionStamps.leadingVersion(ifMatch)
+                .orElseThrow(() -> new PreconditionFailedException("Owner " + ownerId + " has been modified"));
+            int updated = ownerRepository.updateIfVersionMatches(ownerId, version,
+                ownerRequest.firstName(), ownerRequest.lastName(), ownerRequest.address(),
+                ownerRequest.city(), ownerRequest.telephone());
+            if (updated == 0) {
+                if (!ownerRepository.existsById(ownerId)) {
+                    throw new ResourceNotFoundException("Owner " + ownerId + " not found");
+                }
+                throw new PreconditionFailedException("Owner " + ownerId + " has been modified");
+            }
+            log.info("Updated owner {} from version {}", ownerId, version);
+            return;
+        }
         final Owner ownerModel = ownerRepository.findById(ownerId).orElseThrow(() -> new ResourceNotFoundException("Owner " + ownerId + " not found"));
 
         ownerEntityMapper.map(ownerModel, ownerRequest);
@@ -16,8 +16,8 @@
 package org.springframework.samples.petclinic.customers.web;
 
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.samples.petclinic.customers.model.Pet;
 import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.samples.petclinic.customers.model.PetView;
 
 import java.util.Date;
 
@@ -38,7 +38,7 @@ record PetDetails(
 
     PetType type
 ) {
-    public PetDetails(Pet pet) {
-        this(pet.getId(), pet.getName(), pet.getOwner().getFirstName() + " " + pet.getOwner().getLastName(), pet.getBirthDate(), pet.getType());
+    public PetDetails(PetView pet) {
+        this(pet.id(), pet.name(), pet.ownerFirstName() + " " + pet.ownerLastName(), pet.birthDate(), pet.type());
     }
 }
@@ -19,11 +19,17 @@ import io.micrometer.core.annotation.Timed;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.customers.model.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * @author Juergen Hoeller
@@ -38,17 +44,30 @@ class PetResource {
 
     private static final Logger log = LoggerFactory.getLogger(PetResource.class);
 
+    private static final CacheControl PET_TYPES_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1))
+        .staleWhileRevalidate(Duration.ofDays(1))
+        .cachePublic();
+
     private final PetRepository petRepository;
     private final OwnerRepository ownerRepository;
+    private final PetTypeIndex petTypeIndex;
 
-    PetResource(PetRepository petRepository, OwnerRepository ownerRepository) {
+    PetResource(PetRepository petRepository, OwnerRepository ownerRepository, PetTypeIndex petTypeIndex) {
         this.petRepository = petRepository;
         this.ownerRepository = ownerRepository;
+        this.petTypeIndex = petTypeIndex;
     }
 
+    /**
+     * Served from the {@link PetTypeIndex}. The response can be cached by the browser for an hour and is then
+     * revalidated with its ETag.
+     */
     @GetMapping("/petTypes")
-    public List<PetType> getPetTypes() {
-        return petRepository.findPetTypes();
+    public ResponseEntity<List<PetType>> getPetTypes() {
+        return ResponseEntity.ok()
+            .cacheControl(PET_TYPES_CACHE_CONTROL)
+            .eTag(petTypeIndex.etag())
+            .body(petTypeIndex.findAll());
     }
 
     @PostMapping("/owners/{ownerId}/pets")
@@ -65,10 +84,34 @@ class PetResource {
         return save(pet, petRequest);
     }
 
+    /**
+     * Same conditional update as {@link OwnerResource#updateOwner} when an {@code If-Match} header is present.
+     */
     @PutMapping("/owners/*/pets/{petId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void processUpdateForm(@RequestBody PetRequest petRequest) {
+    public void processUpdateForm(@RequestBody PetRequest petRequest,
+                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         int petId = petRequest.id();
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            int version = VersionStamps.leadingVersion(ifMatch)
+                .orElseThrow(() -> new PreconditionFailedException("Pet " + petId + " has been modified"));
+            Optional<PetType> type = petTypeIndex.findById(petRequest.typeId());
+            if (type.isPresent()) {
+                int updated = petRepository.updateIfVersionMatches(petId, version,
+                    petRequest.name(), petRequest.birthDate(), type.get());
+                if (updated == 1) {
+                    log.info("Updated pet {} from version {}", petId, version);
+                    return;
+                }
+            }
+            Pet pet = findPetById(petId);
+            if (!Integer.valueOf(version).equals(pet.getVersion())) {
+                throw new PreconditionFailedException("Pet " + petId + " has been modified");
+            }
+            // The pet type does not exist: keep the current one, as the unconditional update does
+            save(pet, petRequest);
+            return;
+        }
         Pet pet = findPetById(petId);
         save(pet, petRequest);
     }
@@ -78,7 +121,7 @@ class PetResource {
         pet.setName(petRequest.name());
         pet.setBirthDate(petRequest.birthDate());
 
-        petRepository.findPetTypeById(petRequest.typeId())
+        petTypeIndex.findById(petRequest.typeId())
             .ifPresent(pet::setType);
 
         log.info("Saving pet {}", pet);
@@ -86,9 +129,16 @@ class PetResource {
     }
 
     @GetMapping("owners/*/pets/{petId}")
-    public PetDetails findPet(@PathVariable("petId") int petId) {
-        Pet pet = findPetById(petId);
-        return new PetDetails(pet);
+    public PetDetails findPet(@PathVariable("petId") int petId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> versionStamp = petRepository.findVersionStampById(petId);
+            if (versionStamp.isPresent() && request.checkNotModified(versionStamp.get())) {
+                return null;
+            }
+        }
+        PetView pet = petRepository.findViewById(petId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pet " + petId + " not found"));
+        return request.checkNotModified(VersionStamps.of(pet)) ? null : new PetDetails(pet);
     }
 
 
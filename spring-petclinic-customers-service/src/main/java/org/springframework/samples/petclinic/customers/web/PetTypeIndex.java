@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Immutable in-memory copy of the pet types, so that neither {@code GET /petTypes} nor the pet
+ * create and update paths query this reference data. The index is loaded at startup, reloaded
+ * in the background once it is older than {@code petclinic.pet-types.ttl}, and can be reloaded on
+ * demand through the {@code pettypes} actuator endpoint.
+ */
+@Component
+class PetTypeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PetTypeIndex.class);
+
+    private final PetRepository petRepository;
+
+    private final Duration ttl;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    PetTypeIndex(PetRepository petRepository, @Value("${petclinic.pet-types.ttl:1h}") Duration ttl) {
+        this.petRepository = petRepository;
+        this.ttl = ttl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<PetType> sorted = List.copyOf(petRepository.findPetTypes());
+        int maxId = sorted.stream().mapToInt(PetType::getId).max().orElse(0);
+        PetType[] byId = new PetType[maxId + 1];
+        StringBuilder stamp = new StringBuilder();
+        for (PetType type : sorted) {
+            byId[type.getId()] = type;
+            stamp.append(type.getId()).append(':').append(type.getName()).append('\n');
+        }
+        String etag = '"' + DigestUtils.md5DigestAsHex(stamp.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+        this.snapshot = new Snapshot(byId, sorted, etag, Instant.now());
+        log.info("Loaded {} pet types", sorted.size());
+    }
+
+    /**
+     * @return the pet types, ordered by name
+     */
+    List<PetType> findAll() {
+        return current().sorted();
+    }
+
+    Optional<PetType> findById(int typeId) {
+        PetType[] byId = current().byId();
+        return typeId >= 0 && typeId < byId.length ? Optional.ofNullable(byId[typeId]) : Optional.empty();
+    }
+
+    /**
+     * @return a strong ETag of the pet types, which changes when a reload finds different types
+     */
+    String etag() {
+        return current().etag();
+    }
+
+    /**
+     * Serves the loaded snapshot, even once expired: an expired snapshot is reloaded in the background, so that
+     * no request waits for the database. Only a request arriving before the startup load does.
+     */
+    private Snapshot current() {
+        Snapshot current = this.snapshot;
+        if (current == null) {
+            return loadIfAbsent();
+        }
+        if (current.loadedAt().plus(ttl).isBefore(Instant.now()) && reloading.compareAndSet(false, true)) {
+            Thread reload = new Thread(this::reload, "pet-types-reload");
+            reload.setDaemon(true);
+            reload.start();
+        }
+        return current;
+    }
+
+    private void reload() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload the pet types, keeping the previous ones", ex);
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    // A lock rather than synchronized, which would pin the carrier of a virtual thread during the query
+    private Snapshot loadIfAbsent() {
+        loadLock.lock();
+        try {
+            if (this.snapshot == null) {
+                refresh();
+            }
+            return this.snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private record Snapshot(
+        PetType[] byId,
+        List<PetType> sorted,
+        String etag,
+        Instant loadedAt
+    ) {
+    }
+}
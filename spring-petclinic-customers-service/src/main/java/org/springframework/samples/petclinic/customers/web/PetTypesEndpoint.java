@@ -0,0 +1,26 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/pettypes} reloads the {@link PetTypeIndex} from the database, without waiting for it
+ * to expire. An actuator endpoint rather than a resource, so that it is not published through the gateway
+ * with the customers API.
+ */
+@Component
+@Endpoint(id = "pettypes")
+class PetTypesEndpoint {
+
+    private final PetTypeIndex petTypeIndex;
+
+    PetTypesEndpoint(PetTypeIndex petTypeIndex) {
+        this.petTypeIndex = petTypeIndex;
+    }
+
+    @WriteOperation
+    public void refresh() {
+        petTypeIndex.refresh();
+    }
+}
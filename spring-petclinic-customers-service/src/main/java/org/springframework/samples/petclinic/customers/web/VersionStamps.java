@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.web;
+
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.samples.petclinic.customers.model.PetView;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Strong ETag values built from the version columns of the entities making up a response.
+ * Each method computes, from loaded entities, the same stamp as the matching repository query, so that
+ * a conditional request can be answered from the stamp query alone.
+ */
+final class VersionStamps {
+
+    private VersionStamps() {
+    }
+
+    /**
+     * Same as {@link OwnerRepository#findVersionStampById(int)}.
+     */
+    static String of(Owner owner) {
+        List<Pet> pets = owner.getPets();
+        return version(owner.getVersion()) + "." + pets.size() + "." + sumOfVersions(pets);
+    }
+
+    /**
+     * Same as {@link OwnerRepository#findVersionStamp()}.
+     */
+    static String of(List<Owner> owners) {
+        long ownerVersions = 0;
+        long petCount = 0;
+        long petVersions = 0;
+        for (Owner owner : owners) {
+            ownerVersions += version(owner.getVersion());
+            petCount += owner.getPets().size();
+            petVersions += sumOfVersions(owner.getPets());
+        }
+        return owners.size() + "." + ownerVersions + "." + petCount + "." + petVersions;
+    }
+
+    /**
+     * Same as {@link PetRepository#findVersionStampById(int)}.
+     */
+    static String of(PetView pet) {
+        return version(pet.version()) + "." + version(pet.ownerVersion());
+    }
+
+    /**
+     * Version of the entity itself, the first component of its stamp, read from a single strong ETag as sent
+     * in an {@code If-Match} header.
+     * @return the version, or empty if the ETag was not issued by this service
+     */
+    static OptionalInt leadingVersion(String eTag) {
+        String value = eTag.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return OptionalInt.empty();
+        }
+        value = value.substring(1, value.length() - 1);
+        int end = value.indexOf('.');
+        try {
+            return OptionalInt.of(Integer.parseInt(end < 0 ? value : value.substring(0, end)));
+        } catch (NumberFormatException ex) {
+            return OptionalInt.empty();
+        }
+    }
+
+    private static long sumOfVersions(List<Pet> pets) {
+        long sum = 0;
+        for (Pet pet : pets) {
+            sum += version(pet.getVersion());
+        }
+        return sum;
+    }
+
+    private static int version(Integer version) {
+        // Only entities that were never persisted have no version
+        return Objects.requireNonNullElse(version, 0);
+    }
+}
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import(OwnerBatchInserter.class)
+@ActiveProfiles("test")
+class OwnerBatchInserterTest {
+
+    @Autowired
+    OwnerBatchInserter ownerBatchInserter;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertsEveryPetWithTheGeneratedIdOfItsOwner() {
+        PetType cat = new PetType();
+        cat.setId(1);
+        List<Owner> owners = List.of(
+            owner("Franklin", pet("Leo", cat)),
+            owner("Davis"),
+            owner("Coleman", pet("Max", cat), pet("Samantha", cat)));
+
+        int[] ownerIds = ownerBatchInserter.insertAll(owners);
+
+        assertThat(ownerIds).hasSize(3).doesNotHaveDuplicates();
+        assertThat(lastName(ownerIds[0])).isEqualTo("Franklin");
+        assertThat(lastName(ownerIds[1])).isEqualTo("Davis");
+        assertThat(lastName(ownerIds[2])).isEqualTo("Coleman");
+        List<Map<String, Object>> pets = jdbcTemplate.queryForList("""
+            SELECT pets.name, owners.last_name FROM pets JOIN owners ON owners.id = pets.owner_id
+            WHERE owners.id IN (?, ?, ?) ORDER BY pets.name""", ownerIds[0], ownerIds[1], ownerIds[2]);
+        assertThat(pets).extracting(pet -> pet.get("NAME") + "/" + pet.get("LAST_NAME"))
+            .containsExactly("Leo/Franklin", "Max/Coleman", "Samantha/Coleman");
+    }
+
+    private String lastName(int ownerId) {
+        return jdbcTemplate.queryForObject("SELECT last_name FROM owners WHERE id = ?", String.class, ownerId);
+    }
+
+    private static Owner owner(String lastName, Pet... pets) {
+        Owner owner = new Owner();
+        owner.setFirstName("Jean");
+        owner.setLastName(lastName);
+        owner.setAddress("105 N. Lake St.");
+        owner.setCity("Monona");
+        owner.setTelephone("6085552654");
+        for (Pet pet : pets) {
+            owner.addPet(pet);
+        }
+        return owner;
+    }
+
+    private static Pet pet(String name, PetType type) {
+        Pet pet = new Pet();
+        pet.setName(name);
+        pet.setType(type);
+        return pet;
+    }
+}
@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OwnerRepositoryTest {
+
+    @Autowired
+    OwnerRepository ownerRepository;
+
+    @Test
+    void findByLastNamePrefixIgnoringCase() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by("firstName"));
+
+        assertThat(ownerRepository.findByLastNameStartingWith("davis", page))
+            .extracting(Owner::getFirstName).containsExactly("Betty", "Harold");
+        assertThat(ownerRepository.findByLastNameStartingWith("DAV", page))
+            .extracting(Owner::getFirstName).containsExactly("Betty", "Harold");
+    }
+}
@@ -0,0 +1,58 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the sorted view of the pets of an {@link Owner}.
+ */
+class OwnerTest {
+
+    private final Owner owner = new Owner();
+
+    @Test
+    void sortsThePetsOnceUntilTheyChange() {
+        owner.addPet(pet("Max"));
+        owner.addPet(pet("bella"));
+
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("bella", "Max");
+        assertThat(owner.getPets()).isSameAs(owner.getPets());
+
+        owner.addPet(pet("Charlie"));
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("bella", "Charlie", "Max");
+    }
+
+    @Test
+    void sortsThePetsAgainWhenOneIsRenamed() {
+        Pet max = pet("Max");
+        owner.addPet(max);
+        owner.addPet(pet("Bella"));
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Bella", "Max");
+
+        max.setName("Apollo");
+
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Apollo", "Bella");
+    }
+
+    @Test
+    void sortsThePetsAgainWhenTheCollectionIsReplaced() {
+        owner.addPet(pet("Max"));
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Max");
+
+        // Like Hibernate setting a new collection when it loads, refreshes or merges the owner
+        ReflectionTestUtils.setField(owner, "pets", new HashSet<>(Set.of(pet("Bella"))));
+
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Bella");
+    }
+
+    private static Pet pet(String name) {
+        Pet pet = new Pet();
+        pet.setName(name);
+        return pet;
+    }
+}
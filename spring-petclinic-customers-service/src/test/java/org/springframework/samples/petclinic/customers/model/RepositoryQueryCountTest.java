@@ -0,0 +1,99 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Number of SQL statements issued by the repository methods behind each owner and pet endpoint,
+ * including the loading of everything their JSON response contains.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class RepositoryQueryCountTest {
+
+    @Autowired
+    OwnerRepository ownerRepository;
+
+    @Autowired
+    PetRepository petRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findOwnerLoadsPetsAndTypesInOneQuery() {
+        Owner owner = ownerRepository.findById(6).orElseThrow();
+
+        assertThat(owner.getPets()).extracting(pet -> pet.getType().getName()).containsExactly("cat", "cat");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllOwnersLoadsPetsAndTypesInOneQuery() {
+        List<Owner> owners = ownerRepository.findAll();
+
+        assertThat(owners).hasSize(10);
+        assertThat(owners).flatExtracting(Owner::getPets).extracting(pet -> pet.getType().getName()).hasSize(13);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findOwnersPageLoadsPetsAndTypesInBatches() {
+        List<Owner> owners = ownerRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(5));
+
+        assertThat(owners).flatExtracting(Owner::getPets).extracting(pet -> pet.getType().getName()).hasSize(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void streamAllOwnersLoadsPetsAndTypesInOneQuery() {
+        List<Owner> owners = new ArrayList<>();
+        try (Stream<Owner> stream = ownerRepository.streamAll()) {
+            stream.forEach(owner -> {
+                owner.getPets().forEach(pet -> pet.getType().getName());
+                // As OwnerResource.streamAll does once an owner is written
+                entityManager.detach(owner);
+                owners.add(owner);
+            });
+        }
+
+        assertThat(owners).extracting(Owner::getId).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(owners).flatExtracting(Owner::getPets).hasSize(13);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPetDetailsInOneQuery() {
+        PetView pet = petRepository.findViewById(2).orElseThrow();
+
+        assertThat(pet.name()).isEqualTo("Basil");
+        assertThat(pet.type().getName()).isEqualTo("hamster");
+        assertThat(pet.ownerLastName()).isEqualTo("Davis");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,139 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerBatchInserter;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OwnerImportResource.class)
+@Import(PetTypeIndex.class)
+@ActiveProfiles("test")
+class OwnerImportResourceTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    PetTypeIndex petTypeIndex;
+
+    @MockBean
+    OwnerBatchInserter ownerBatchInserter;
+
+    @MockBean
+    PetRepository petRepository;
+
+    @BeforeEach
+    void setUpPetTypes() {
+        PetType cat = new PetType();
+        cat.setId(1);
+        cat.setName("cat");
+        given(petRepository.findPetTypes()).willReturn(List.of(cat));
+        petTypeIndex.refresh();
+    }
+
+    @Test
+    void shouldImportNdjsonAndReportInvalidRows() throws Exception {
+        String body = """
+            {"firstName":"George","lastName":"Franklin","address":"110 W. Liberty St.","city":"Madison","telephone":"6085551023","pets":[{"name":"Leo","birthDate":"2010-09-07","typeId":1}]}
+            {"firstName":"","lastName":"Davis","address":"638 Cardinal Ave.","city":"Sun Prairie","telephone":"6085551749"}
+            {"firstName":"Jean","lastName":"Coleman","address":"105 N. Lake St.","city":"Monona","telephone":"6085552654","pets":[{"name":"Max","typeId":9}]}
+            not json
+            """;
+
+        // The resource clears and reuses its batch list once written: keep a copy of each batch
+        List<List<Owner>> batches = new ArrayList<>();
+        given(ownerBatchInserter.insertAll(anyList())).willAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.<List<Owner>>getArgument(0)));
+            return new int[0];
+        });
+
+        mvc.perform(post("/owners/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners").value(1))
+            .andExpect(jsonPath("$.pets").value(1))
+            .andExpect(jsonPath("$.rejected").value(3))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[0].message").value("firstName must not be blank"))
+            .andExpect(jsonPath("$.errors[1].line").value(3))
+            .andExpect(jsonPath("$.errors[1].message").value("unknown pet type 9"))
+            .andExpect(jsonPath("$.errors[2].line").value(4));
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).singleElement().satisfies(owner -> {
+            assertThat(owner.getLastName()).isEqualTo("Franklin");
+            assertThat(owner.getPets()).extracting(pet -> pet.getType().getName()).containsExactly("cat");
+        });
+    }
+
+    @Test
+    void shouldImportCsvAndIsolateRowsRejectedByTheDatabase() throws Exception {
+        String body = """
+            firstName,lastName,address,city,telephone
+            George,Franklin,"110 W. Liberty St., Apt ""B""",Madison,6085551023,Leo,2010-09-07,1
+            Betty,Davis,638 Cardinal Ave.,Sun Prairie,6085551749
+            """;
+        given(ownerBatchInserter.insertAll(argThat(owners -> owners != null && owners.size() == 2)))
+            .willThrow(new DataIntegrityViolationException("batch"));
+        given(ownerBatchInserter.insertAll(argThat(owners ->
+            owners != null && owners.size() == 1 && "Davis".equals(owners.get(0).getLastName()))))
+            .willThrow(new DataIntegrityViolationException("Data too long for column 'address'"));
+
+        mvc.perform(post("/owners/import").contentType(OwnerImportResource.TEXT_CSV_VALUE).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners").value(1))
+            .andExpect(jsonPath("$.pets").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(3))
+            .andExpect(jsonPath("$.errors[0].message").value("Data too long for column 'address'"));
+
+        verify(ownerBatchInserter, times(3)).insertAll(anyList());
+    }
+
+    @Test
+    void shouldSkipCsvHeaderInAnyCaseAfterAByteOrderMark() throws Exception {
+        String body = "\uFEFFFIRST_NAME,last_name,address,city,telephone\n"
+            + "George,Franklin,110 W. Liberty St.,Madison,6085551023\n";
+
+        mvc.perform(post("/owners/import").contentType(OwnerImportResource.TEXT_CSV_VALUE).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners").value(1))
+            .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    void shouldRecognizeCsvHeaders() {
+        assertThat(OwnerImportResource.isCsvHeader("firstName,lastName")).isTrue();
+        assertThat(OwnerImportResource.isCsvHeader("first_name,last_name")).isTrue();
+        assertThat(OwnerImportResource.isCsvHeader("\"First Name\",\"Last Name\"")).isTrue();
+        assertThat(OwnerImportResource.isCsvHeader("George,Franklin")).isFalse();
+    }
+
+    @Test
+    void shouldSplitQuotedCsvColumns() {
+        assertThat(OwnerImportResource.splitCsvLine("a,\"b, \"\"c\"\"\",,d"))
+            .containsExactly("a", "b, \"c\"", "", "d");
+    }
+}
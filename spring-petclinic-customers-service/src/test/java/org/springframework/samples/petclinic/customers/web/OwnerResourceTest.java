@@ -1,20 +1,32 @@
 package org.springframework.samples.petclinic.customers.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.samples.petclinic.customers.model.Owner;
 import org.springframework.samples.petclinic.customers.model.OwnerRepository;
 import org.springframework.samples.petclinic.customers.web.mapper.OwnerEntityMapper;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +42,12 @@ public class OwnerResourceTest {
     @Mock
     private OwnerEntityMapper ownerEntityMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private MockMvc mockMvc;
 
     private Owner owner;
@@ -37,7 +55,9 @@ public class OwnerResourceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(ownerResource).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(ownerResource)
+            .setControllerAdvice(new OptimisticLockingFailureAdvice())
+            .build();
 
         owner = new Owner();
         owner.setFirstName("John");
@@ -63,9 +83,154 @@ public class OwnerResourceTest {
         verify(ownerRepository, times(1)).save(owner);
     }
 
+    @Test
+    void updateOwnerIfMatchInSingleStatement() throws Exception {
+        when(ownerRepository.updateIfVersionMatches(1, 3, "Jane", "Smith", "123 Main St", "Springfield", "1234567890"))
+                .thenReturn(1);
+
+        mockMvc.perform(put("/owners/{ownerId}", 1)
+                        .header("If-Match", "\"3.2.5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Jane\",\"lastName\":\"Smith\",\"address\":\"123 Main St\","
+                                + "\"city\":\"Springfield\",\"telephone\":\"1234567890\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(ownerRepository, never()).findById(anyInt());
+        verify(ownerRepository, never()).save(any());
+    }
+
+    @Test
+    void updateOwnerModifiedConcurrently() throws Exception {
+        when(ownerRepository.updateIfVersionMatches(eq(1), eq(3), any(), any(), any(), any(), any())).thenReturn(0);
+        when(ownerRepository.existsById(1)).thenReturn(true);
+
+        mockMvc.perform(put("/owners/{ownerId}", 1)
+                        .header("If-Match", "\"3.2.5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(owner)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateOwnerWithoutIfMatchLosingTheVersionRace() throws Exception {
+        when(ownerRepository.findById(1)).thenReturn(Optional.of(owner));
+        when(ownerRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Owner.class, 1));
+
+        mockMvc.perform(put("/owners/{ownerId}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(owner)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void findAllOwners() throws Exception {
         mockMvc.perform(get("/owners"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void findOwnerNotModified() throws Exception {
+        when(ownerRepository.findVersionStampById(1)).thenReturn(Optional.of("3.0.0"));
+
+        mockMvc.perform(get("/owners/{ownerId}", 1).header("If-None-Match", "\"3.0.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3.0.0\""));
+
+        verify(ownerRepository, never()).findById(1);
+    }
+
+    @Test
+    void findOwnerModifiedSinceGivenETag() throws Exception {
+        when(ownerRepository.findVersionStampById(1)).thenReturn(Optional.of("4.0.0"));
+        when(ownerRepository.findById(1)).thenReturn(Optional.of(owner));
+
+        mockMvc.perform(get("/owners/{ownerId}", 1).header("If-None-Match", "\"3.0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.0.0\""))
+                .andExpect(jsonPath("$.lastName").value("Doe"));
+    }
+
+    @Test
+    void findOwnersByIds() throws Exception {
+        when(ownerRepository.findAllById(List.of(1, 2))).thenReturn(List.of(owner));
+
+        mockMvc.perform(get("/owners").param("ownerId", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"));
+    }
+
+    @Test
+    void findOwnersPageAfterGivenId() throws Exception {
+        when(ownerRepository.findByIdGreaterThanOrderByIdAsc(eq(10), any(Limit.class))).thenReturn(List.of(owner));
+
+        mockMvc.perform(get("/owners").param("after", "10").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Doe"));
+
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+        verify(ownerRepository).findByIdGreaterThanOrderByIdAsc(eq(10), limit.capture());
+        assertThat(limit.getValue().max()).isEqualTo(20);
+    }
+
+    @Test
+    void findOwnersPageCapsLimit() throws Exception {
+        mockMvc.perform(get("/owners").param("limit", "100000"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+        verify(ownerRepository).findByIdGreaterThanOrderByIdAsc(eq(0), limit.capture());
+        assertThat(limit.getValue().max()).isEqualTo(OwnerResource.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void searchOwnersByLastNamePrefix() throws Exception {
+        when(ownerRepository.findByLastNameStartingWith(eq("Do"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(owner), PageRequest.of(1, 10), true));
+
+        mockMvc.perform(get("/owners").param("lastName", "Do").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].lastName").value("Doe"))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(ownerRepository).findByLastNameStartingWith(eq("Do"), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(10);
+        assertThat(pageable.getValue().getSort().getOrderFor("lastName")).isNotNull();
+    }
+
+    @Test
+    void searchOwnersCapsPageSize() throws Exception {
+        when(ownerRepository.findByLastNameStartingWith(eq("Do"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(owner)));
+
+        mockMvc.perform(get("/owners").param("lastName", "Do").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(ownerRepository).findByLastNameStartingWith(eq("Do"), pageable.capture());
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(OwnerResource.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void streamOwnersAsNdjson() throws Exception {
+        Owner other = new Owner();
+        other.setFirstName("Jane");
+        other.setLastName("Roe");
+        when(ownerRepository.streamAll()).thenReturn(Stream.of(owner, other));
+
+        String body = mockMvc.perform(get("/owners").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n"))
+                .hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).contains("\"lastName\":\"Doe\""),
+                        line -> assertThat(line).contains("\"lastName\":\"Roe\""));
+        verify(entityManager).detach(owner);
+        verify(entityManager).detach(other);
+    }
 }
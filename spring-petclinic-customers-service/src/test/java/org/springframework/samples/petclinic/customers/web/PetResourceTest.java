@@ -10,23 +10,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.samples.petclinic.customers.model.Owner;
 import org.springframework.samples.petclinic.customers.model.OwnerRepository;
 import org.springframework.samples.petclinic.customers.model.Pet;
 import org.springframework.samples.petclinic.customers.model.PetRepository;
 import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.samples.petclinic.customers.model.PetView;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,12 +43,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(PetResource.class)
+@Import(PetTypeIndex.class)
 @ActiveProfiles("test")
 class PetResourceTest {
 
     @Autowired
     MockMvc mvc;
 
+    @Autowired
+    PetTypeIndex petTypeIndex;
+
     @MockBean
     PetRepository petRepository;
 
@@ -50,9 +62,11 @@ class PetResourceTest {
     @Test
     void shouldGetAPetInJSonFormat() throws Exception {
 
-        Pet pet = setupPet();
+        PetType petType = new PetType();
+        petType.setId(6);
+        PetView pet = new PetView(2, "Basil", null, petType, "George", "Bush", 0, 0);
 
-        given(petRepository.findById(2)).willReturn(Optional.of(pet));
+        given(petRepository.findViewById(2)).willReturn(Optional.of(pet));
 
 
         mvc.perform(get("/owners/2/pets/2").accept(MediaType.APPLICATION_JSON))
@@ -60,6 +74,7 @@ class PetResourceTest {
             .andExpect(content().contentType("application/json"))
             .andExpect(jsonPath("$.id").value(2))
             .andExpect(jsonPath("$.name").value("Basil"))
+            .andExpect(jsonPath("$.owner").value("George Bush"))
             .andExpect(jsonPath("$.type.id").value(6));
     }
 
@@ -83,7 +98,7 @@ class PetResourceTest {
     
     @Test
     void shouldReturnNotFoundWhenPetDoesNotExist() throws Exception {
-        given(petRepository.findById(999)).willReturn(Optional.empty());
+        given(petRepository.findViewById(999)).willReturn(Optional.empty());
 
         mvc.perform(get("/owners/1/pets/999").accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -97,12 +112,19 @@ class PetResourceTest {
         
         List<PetType> petTypes = Arrays.asList(petType);
         given(petRepository.findPetTypes()).willReturn(petTypes);
+        petTypeIndex.refresh();
 
         mvc.perform(get("/petTypes").accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
             .andExpect(content().contentType("application/json"))
+            .andExpect(header().exists("ETag"))
+            .andExpect(header().string("Cache-Control", containsString("max-age=3600")))
             .andExpect(jsonPath("$[0].id").value(6))
             .andExpect(jsonPath("$[0].name").value("dog"));
+
+        mvc.perform(get("/petTypes").header("If-None-Match", petTypeIndex.etag()))
+            .andExpect(status().isNotModified());
+        verify(petRepository, times(1)).findPetTypes();
     }
 
     @Test
@@ -120,7 +142,8 @@ class PetResourceTest {
         newPet.setOwner(owner);
         
         given(ownerRepository.findById(1)).willReturn(Optional.of(owner));
-        given(petRepository.findPetTypeById(6)).willReturn(Optional.of(petType));
+        given(petRepository.findPetTypes()).willReturn(List.of(petType));
+        petTypeIndex.refresh();
         given(petRepository.save(any(Pet.class))).willReturn(newPet);
 
         mvc.perform(post("/owners/1/pets")
@@ -151,7 +174,8 @@ class PetResourceTest {
         catType.setName("cat");
         
         given(petRepository.findById(2)).willReturn(Optional.of(pet));
-        given(petRepository.findPetTypeById(7)).willReturn(Optional.of(catType));
+        given(petRepository.findPetTypes()).willReturn(List.of(catType));
+        petTypeIndex.refresh();
         given(petRepository.save(any(Pet.class))).willReturn(pet);
 
         mvc.perform(put("/owners/1/pets/2")
@@ -162,6 +186,40 @@ class PetResourceTest {
         verify(petRepository).save(any(Pet.class));
     }
 
+    @Test
+    void shouldRejectUpdateOfPetModifiedConcurrently() throws Exception {
+        Pet pet = setupPet();
+        PetType catType = new PetType();
+        catType.setId(7);
+        catType.setName("cat");
+
+        given(petRepository.findById(2)).willReturn(Optional.of(pet));
+        given(petRepository.findPetTypes()).willReturn(List.of(catType));
+        petTypeIndex.refresh();
+
+        mvc.perform(put("/owners/1/pets/2")
+            .header("If-Match", "\"4.1\"")
+            .content("{\"id\": 2, \"name\": \"Maxwell\", \"birthDate\": \"2021-04-17\", \"typeId\": 7}")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+
+        verify(petRepository).updateIfVersionMatches(eq(2), eq(4), eq("Maxwell"), any(Date.class), eq(catType));
+        verify(petRepository, never()).save(any(Pet.class));
+    }
+
+    @Test
+    void shouldRejectUpdateOfPetLosingTheVersionRace() throws Exception {
+        Pet pet = setupPet();
+
+        given(petRepository.findById(2)).willReturn(Optional.of(pet));
+        given(petRepository.save(any(Pet.class))).willThrow(new ObjectOptimisticLockingFailureException(Pet.class, 2));
+
+        mvc.perform(put("/owners/1/pets/2")
+            .content("{\"id\": 2, \"name\": \"Maxwell\", \"birthDate\": \"2021-04-17\", \"typeId\": 7}")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void shouldReturnNotFoundWhenUpdatingNonExistingPet() throws Exception {
         given(petRepository.findById(999)).willReturn(Optional.empty());
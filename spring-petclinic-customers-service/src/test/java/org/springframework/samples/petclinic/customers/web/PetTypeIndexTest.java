@@ -0,0 +1,61 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.samples.petclinic.customers.model.PetType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class PetTypeIndexTest {
+
+    private final PetRepository petRepository = mock(PetRepository.class);
+
+    @Test
+    void servesExpiredTypesWhileReloadingThemInTheBackground() throws Exception {
+        PetTypeIndex petTypeIndex = new PetTypeIndex(petRepository, Duration.ofNanos(-1));
+        given(petRepository.findPetTypes()).willReturn(List.of(petType(1, "cat")));
+        petTypeIndex.refresh();
+
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch databaseAnswers = new CountDownLatch(1);
+        given(petRepository.findPetTypes()).willAnswer(invocation -> {
+            reloadStarted.countDown();
+            databaseAnswers.await();
+            return List.of(petType(1, "cat"), petType(2, "dog"));
+        });
+
+        // Answered from the expired types while the reload waits for the database
+        assertThat(petTypeIndex.findAll()).extracting(PetType::getName).containsExactly("cat");
+        assertThat(reloadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(petTypeIndex.findById(2)).isEmpty();
+
+        databaseAnswers.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (petTypeIndex.findById(2).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(petTypeIndex.findById(2)).map(PetType::getName).hasValue("dog");
+    }
+
+    @Test
+    void loadsTheTypesOnFirstUseBeforeStartup() {
+        PetTypeIndex petTypeIndex = new PetTypeIndex(petRepository, Duration.ofHours(1));
+        given(petRepository.findPetTypes()).willReturn(List.of(petType(1, "cat")));
+
+        assertThat(petTypeIndex.findById(1)).map(PetType::getName).hasValue("cat");
+    }
+
+    private static PetType petType(int id, String name) {
+        PetType petType = new PetType();
+        petType.setId(id);
+        petType.setName(name);
+        return petType;
+    }
+}
@@ -1,36 +1,75 @@
 package org.springframework.samples.petclinic.genai;
 
 import org.springframework.ai.chat.memory.ChatMemory;
-import org.springframework.ai.chat.memory.InMemoryChatMemory;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
+import org.springframework.samples.petclinic.genai.vectorstore.HnswVectorStore;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * A Configuration class for beans used by the Chat Client.
  *
  * @author Oded Shopen
  */
 @Configuration
+@EnableConfigurationProperties({ ChatProperties.class, VectorStoreProperties.class })
 public class AIBeanConfiguration {
 
 	@Bean
-	public ChatMemory chatMemory() {
-		return new InMemoryChatMemory();
+	public ChatMemory chatMemory(ChatProperties properties, MeterRegistry meterRegistry) {
+		return new BoundedChatMemory(properties.memory(), meterRegistry);
+	}
+
+	/**
+	 * Threads the chat exchanges run on. The LLM call and the functions it invokes block, so they
+	 * are kept off the event loop, and bounded so that a burst of chats queues instead of growing
+	 * the thread count.
+	 */
+	@Bean(destroyMethod = "dispose")
+	Scheduler chatScheduler(ChatProperties properties) {
+		return Schedulers.newBoundedElastic(properties.maxConcurrency(), properties.maxQueued(), "genai-chat");
 	}
 
 	@Bean
-	VectorStore vectorStore(EmbeddingModel embeddingModel) {
-		return new SimpleVectorStore(embeddingModel);
+	VectorStore vectorStore(EmbeddingModel embeddingModel, VectorStoreProperties properties) {
+		VectorStoreProperties.Hnsw hnsw = properties.hnsw();
+		return switch (properties.type()) {
+			case SIMPLE -> new SimpleVectorStore(embeddingModel);
+			case HNSW -> new HnswVectorStore(embeddingModel, hnsw.m(), hnsw.efConstruction(), hnsw.efSearch());
+		};
 	}
 	
-    @Bean
-    @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
-    }
+	/**
+	 * Used by Spring AI to call the LLM provider, which is not registered with the discovery
+	 * server. Streamed completions are handed over to {@code chatScheduler} as they arrive: Spring AI
+	 * calls the functions from the stream, and they must not block the event loop.
+	 * <p>
+	 * Stands in for the builder of Spring Boot, which backs off because of the builders of
+	 * {@link HttpClientConfig}: like it, a new builder is given to each consumer, with the
+	 * {@link WebClientCustomizer}s (codecs, observations) applied.
+	 */
+	@Bean
+	@Primary
+	@Scope("prototype")
+	public WebClient.Builder llmWebClientBuilder(ObjectProvider<WebClientCustomizer> customizers,
+			@Qualifier("chatScheduler") Scheduler chatScheduler) {
+		WebClient.Builder builder = WebClient.builder();
+		customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+		return builder
+			.filter((request, next) -> next.exchange(request)
+				.map(response -> response.mutate().body(body -> body.publishOn(chatScheduler)).build()));
+	}
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.samples.petclinic.genai.dto.OwnerDetails;
 import org.springframework.samples.petclinic.genai.dto.PetDetails;
@@ -14,9 +15,13 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import reactor.core.publisher.Mono;
+
 /**
  * Functions that are invoked by the LLM will use this bean to query the system of record
  * for information such as listing owners and vets, or adding pets to an owner.
+ * Calls to customers-service are returned unsubscribed, and are only awaited by the
+ * functions, on the threads of the chat exchange.
  *
  * @author Oded Shopen
  */
@@ -29,18 +34,19 @@ public class AIDataProvider {
     private final WebClient webClient;
 
 
-	public AIDataProvider(WebClient.Builder webClientBuilder, VectorStore vectorStore) {
+	public AIDataProvider(@Qualifier("customersServiceWebClientBuilder") WebClient.Builder webClientBuilder,
+			VectorStore vectorStore) {
 		this.webClient = webClientBuilder.build();
 		this.vectorStore = vectorStore;
 	}
 
-	public OwnersResponse getAllOwners() {
-		return new OwnersResponse(webClient
+	public Mono<OwnersResponse> getAllOwners() {
+		return webClient
 	            .get()
 	            .uri(ownersHostname + "owners")
 	            .retrieve()
 	            .bodyToMono(new ParameterizedTypeReference<List<OwnerDetails>>() {})
-	            .block());
+	            .map(OwnersResponse::new);
 	}
 
 	public VetResponse getVets(VetRequest request) throws JsonProcessingException {
@@ -58,20 +64,22 @@ public class AIDataProvider {
 		return new VetResponse(results);
 	}
 
-	public AddedPetResponse addPetToOwner(AddPetRequest request) {
-		return new AddedPetResponse(webClient
+	public Mono<AddedPetResponse> addPetToOwner(AddPetRequest request) {
+		return webClient
 	            .post()
 	            .uri(ownersHostname + "owners/"+request.ownerId()+"/pets")
 	            .bodyValue(request.pet())
-	            .retrieve().bodyToMono(PetDetails.class).block());
+	            .retrieve().bodyToMono(PetDetails.class)
+	            .map(AddedPetResponse::new);
 	}
 
-	public OwnerResponse addOwnerToPetclinic(OwnerRequest ownerRequest) {
-		return new OwnerResponse(webClient
+	public Mono<OwnerResponse> addOwnerToPetclinic(OwnerRequest ownerRequest) {
+		return webClient
 	            .post()
 	            .uri(ownersHostname + "owners")
 	            .bodyValue(ownerRequest)
-	            .retrieve().bodyToMono(OwnerDetails.class).block());
+	            .retrieve().bodyToMono(OwnerDetails.class)
+	            .map(OwnerResponse::new);
 	}
 
 }
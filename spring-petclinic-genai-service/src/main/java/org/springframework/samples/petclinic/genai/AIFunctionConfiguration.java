@@ -23,6 +23,10 @@ import jakarta.validation.constraints.NotBlank;
  * requires more Information on a given topic. The currently available functions enable
  * the LLM to get the list of owners and their pets, get information about the
  * veterinarians, and add a pet to an owner.
+ * <p>
+ * Spring AI invokes these functions synchronously, on the thread of the chat exchange: they wait
+ * for customers-service for at most {@code petclinic.genai.chat.tool-timeout}, on the bounded
+ * {@code chatScheduler} threads rather than on an event loop.
  *
  * @author Oded Shopen
  */
@@ -34,15 +38,17 @@ class AIFunctionConfiguration {
 	// The @Description annotation helps the model understand when to call the function
 	@Bean
 	@Description("List the owners that the pet clinic has")
-	public Function<OwnerRequest, OwnersResponse> listOwners(AIDataProvider petclinicAiProvider) {
-		return request -> petclinicAiProvider.getAllOwners();
+	public Function<OwnerRequest, OwnersResponse> listOwners(AIDataProvider petclinicAiProvider,
+			ChatProperties chatProperties) {
+		return request -> petclinicAiProvider.getAllOwners().block(chatProperties.toolTimeout());
 	}
 
 	@Bean
 	@Description("Add a new pet owner to the pet clinic. " + "The Owner must include a first name and a last name "
 			+ "as two separate words, " + "plus an address and a 10-digit phone number")
-	public Function<OwnerRequest, OwnerResponse> addOwnerToPetclinic(AIDataProvider petclinicAiDataProvider) {
-		return petclinicAiDataProvider::addOwnerToPetclinic;
+	public Function<OwnerRequest, OwnerResponse> addOwnerToPetclinic(AIDataProvider petclinicAiDataProvider,
+			ChatProperties chatProperties) {
+		return request -> petclinicAiDataProvider.addOwnerToPetclinic(request).block(chatProperties.toolTimeout());
 	}
 
 	@Bean
@@ -63,8 +69,9 @@ class AIFunctionConfiguration {
 	@Description("Add a pet with the specified petTypeId, " + "to an owner identified by the ownerId. "
 			+ "The allowed Pet types IDs are only: " + "1 - cat" + "2 - dog" + "3 - lizard" + "4 - snake" + "5 - bird"
 			+ "6 - hamster")
-	public Function<AddPetRequest, AddedPetResponse> addPetToOwner(AIDataProvider petclinicAiProvider) {
-		return petclinicAiProvider::addPetToOwner;
+	public Function<AddPetRequest, AddedPetResponse> addPetToOwner(AIDataProvider petclinicAiProvider,
+			ChatProperties chatProperties) {
+		return request -> petclinicAiProvider.addPetToOwner(request).block(chatProperties.toolTimeout());
 	}
 
 }
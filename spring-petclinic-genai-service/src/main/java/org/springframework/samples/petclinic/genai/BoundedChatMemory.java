@@ -0,0 +1,292 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * {@link ChatMemory} keeping a bounded number of conversations, each within a message and byte
+ * budget, and forgetting the conversations that have been idle for too long. Unlike
+ * {@code InMemoryChatMemory}, the same conversation can be updated by concurrent exchanges.
+ * <p>
+ * Live conversations and evictions are published as the {@code cache.*} metrics of the
+ * {@code genai.chat.memory} cache. Messages dropped to fit the budget of their conversation are
+ * counted by {@code genai.chat.memory.trimmed}, conversations written to the spill directory by
+ * {@code genai.chat.memory.spilled}.
+ * <p>
+ * The files of the spill directory are tracked by a second cache, weighed by their size, which
+ * deletes them once they expire or exceed the size of the directory.
+ */
+public class BoundedChatMemory implements ChatMemory {
+
+	static final String CACHE_NAME = "genai.chat.memory";
+
+	private static final Logger LOG = LoggerFactory.getLogger(BoundedChatMemory.class);
+
+	private static final TypeReference<List<SpilledMessage>> SPILLED_MESSAGES = new TypeReference<>() {
+	};
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ChatProperties.Memory properties;
+
+	private final Cache<String, Conversation> conversations;
+
+	/**
+	 * Size of the files of the spill directory.
+	 */
+	private final Cache<Path, Long> spillFiles;
+
+	private final Counter trimmed;
+
+	private final Counter spilled;
+
+	public BoundedChatMemory(ChatProperties.Memory properties, MeterRegistry meterRegistry) {
+		this(properties, meterRegistry, Ticker.systemTicker());
+	}
+
+	BoundedChatMemory(ChatProperties.Memory properties, MeterRegistry meterRegistry, Ticker ticker) {
+		this.properties = properties;
+		this.conversations = Caffeine.newBuilder()
+			.maximumSize(properties.maxConversations())
+			.expireAfterAccess(properties.timeToLive())
+			.ticker(ticker)
+			.evictionListener(this::evicted)
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, conversations, CACHE_NAME);
+		// Deleted from the thread spilling or restoring a conversation, and by the scheduler once expired
+		this.spillFiles = Caffeine.newBuilder()
+			.maximumWeight(properties.maxSpilledBytes().toBytes())
+			.weigher((Path file, Long size) -> (int) Math.min(size, Integer.MAX_VALUE))
+			.expireAfterWrite(properties.timeToLive())
+			.ticker(ticker)
+			.executor(Runnable::run)
+			.scheduler(Scheduler.systemScheduler())
+			.evictionListener(this::deleteSpillFile)
+			.build();
+		this.trimmed = Counter.builder(CACHE_NAME + ".trimmed")
+			.description("Messages dropped to fit the budget of their conversation")
+			.register(meterRegistry);
+		this.spilled = Counter.builder(CACHE_NAME + ".spilled")
+			.description("Conversations evicted to the spill directory")
+			.register(meterRegistry);
+		if (properties.spillDirectory() != null) {
+			createSpillDirectory();
+		}
+	}
+
+	@Override
+	public void add(String conversationId, List<Message> messages) {
+		conversations.get(conversationId, this::restore).add(messages);
+	}
+
+	@Override
+	public List<Message> get(String conversationId, int lastN) {
+		return conversations.get(conversationId, this::restore).last(lastN);
+	}
+
+	@Override
+	public void clear(String conversationId) {
+		conversations.invalidate(conversationId);
+		if (properties.spillDirectory() != null) {
+			Path file = spillFile(conversationId);
+			spillFiles.invalidate(file);
+			try {
+				Files.deleteIfExists(file);
+			}
+			catch (IOException e) {
+				LOG.warn("Unable to delete the spilled conversation {}", conversationId, e);
+			}
+		}
+	}
+
+	long conversationCount() {
+		conversations.cleanUp();
+		return conversations.estimatedSize();
+	}
+
+	long spilledConversationCount() {
+		spillFiles.cleanUp();
+		return spillFiles.estimatedSize();
+	}
+
+	private void evicted(String conversationId, Conversation conversation, RemovalCause cause) {
+		if (cause != RemovalCause.SIZE || properties.spillDirectory() == null || conversationId == null
+				|| conversation == null) {
+			return;
+		}
+		List<SpilledMessage> messages = conversation.last(properties.maxMessages()).stream()
+			.map(SpilledMessage::of)
+			.filter(Objects::nonNull)
+			.toList();
+		Path file = spillFile(conversationId);
+		try {
+			objectMapper.writeValue(file.toFile(), messages);
+			spillFiles.put(file, Files.size(file));
+			spilled.increment();
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to spill the conversation {}, it is forgotten", conversationId, e);
+		}
+	}
+
+	/**
+	 * Reads a conversation back from the spill directory, which no longer keeps it afterwards.
+	 */
+	private Conversation restore(String conversationId) {
+		Conversation conversation = new Conversation();
+		if (properties.spillDirectory() == null) {
+			return conversation;
+		}
+		Path file = spillFile(conversationId);
+		spillFiles.invalidate(file);
+		try {
+			if (Files.exists(file)) {
+				if (!isExpired(file)) {
+					conversation.add(objectMapper.readValue(file.toFile(), SPILLED_MESSAGES).stream()
+						.map(SpilledMessage::toMessage)
+						.toList());
+				}
+				Files.delete(file);
+			}
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to restore the spilled conversation {}, starting a new one", conversationId, e);
+		}
+		return conversation;
+	}
+
+	private void createSpillDirectory() {
+		try {
+			Files.createDirectories(properties.spillDirectory());
+			// Conversations spilled by a previous run may have expired since
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(properties.spillDirectory(), "*.json")) {
+				for (Path file : files) {
+					if (isExpired(file)) {
+						Files.delete(file);
+					}
+					else {
+						spillFiles.put(file, Files.size(file));
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to use " + properties.spillDirectory() + " as spill directory", e);
+		}
+	}
+
+	private void deleteSpillFile(Path file, Long size, RemovalCause cause) {
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException e) {
+			LOG.warn("Unable to delete the spilled conversation {}", file, e);
+		}
+	}
+
+	private boolean isExpired(Path file) throws IOException {
+		return Files.getLastModifiedTime(file).toMillis() + properties.timeToLive().toMillis()
+				< System.currentTimeMillis();
+	}
+
+	private Path spillFile(String conversationId) {
+		String name = Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(conversationId.getBytes(StandardCharsets.UTF_8));
+		return properties.spillDirectory().resolve(name + ".json");
+	}
+
+	private static long sizeOf(Message message) {
+		return message.getContent() == null ? 0 : message.getContent().getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	/**
+	 * The latest messages of a conversation, oldest first.
+	 */
+	private final class Conversation {
+
+		private final ArrayDeque<Message> messages = new ArrayDeque<>();
+
+		private long bytes;
+
+		synchronized void add(List<Message> added) {
+			for (Message message : added) {
+				messages.addLast(message);
+				bytes += sizeOf(message);
+			}
+			// The latest message is kept even when it exceeds the budget on its own
+			int dropped = 0;
+			while (messages.size() > 1 && (messages.size() > properties.maxMessages()
+					|| bytes > properties.maxBytes().toBytes())) {
+				bytes -= sizeOf(messages.removeFirst());
+				dropped++;
+			}
+			if (dropped > 0) {
+				trimmed.increment(dropped);
+			}
+		}
+
+		synchronized List<Message> last(int count) {
+			List<Message> last = new ArrayList<>(Math.min(count, messages.size()));
+			int skipped = messages.size() - count;
+			for (Message message : messages) {
+				if (skipped-- <= 0) {
+					last.add(message);
+				}
+			}
+			return last;
+		}
+
+	}
+
+	record SpilledMessage(MessageType type, String content) {
+
+		static SpilledMessage of(Message message) {
+			return switch (message.getMessageType()) {
+				case USER, ASSISTANT, SYSTEM -> new SpilledMessage(message.getMessageType(), message.getContent());
+				// Function results are not replayed to the LLM
+				default -> null;
+			};
+		}
+
+		Message toMessage() {
+			return switch (type) {
+				case USER -> new UserMessage(content);
+				case ASSISTANT -> new AssistantMessage(content);
+				default -> new SystemMessage(content);
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits of the chat endpoint. An exchange, including the functions the LLM calls while
+ * answering, holds one of {@code maxConcurrency} threads; up to {@code maxQueued} more exchanges
+ * per thread wait for one, and further ones are answered as unavailable. A function gives up on
+ * the service it calls after {@code toolTimeout}.
+ */
+@ConfigurationProperties(prefix = "petclinic.genai.chat")
+public record ChatProperties(
+		@DefaultValue("50") int maxConcurrency,
+		@DefaultValue("10") int maxQueued,
+		@DefaultValue("10s") Duration toolTimeout,
+		@DefaultValue Memory memory) {
+
+	/**
+	 * Bounds of the conversations kept by {@link BoundedChatMemory}. A conversation is forgotten
+	 * {@code timeToLive} after its last message, and keeps its latest {@code maxMessages} messages
+	 * within {@code maxBytes}. Beyond {@code maxConversations}, the least recently used ones are
+	 * evicted, or written to {@code spillDirectory} when set and read back on their next message.
+	 * Spilled conversations are deleted once idle for {@code timeToLive}, or when the directory
+	 * exceeds {@code maxSpilledBytes}.
+	 */
+	public record Memory(
+			@DefaultValue("10000") int maxConversations,
+			@DefaultValue("30m") Duration timeToLive,
+			@DefaultValue("20") int maxMessages,
+			@DefaultValue("32KB") DataSize maxBytes,
+			Path spillDirectory,
+			@DefaultValue("256MB") DataSize maxSpilledBytes) {
+	}
+
+}
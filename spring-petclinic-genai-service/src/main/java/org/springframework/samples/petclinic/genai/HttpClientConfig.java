@@ -0,0 +1,54 @@
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.commons.http.HttpClientProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.netty.resources.ConnectionProvider;
+
+import static org.springframework.samples.petclinic.commons.http.ServiceHttpClients.connectionProvider;
+import static org.springframework.samples.petclinic.commons.http.ServiceHttpClients.webClientBuilder;
+
+/**
+ * One bounded Reactor Netty connection pool per downstream service, each exposed through its own
+ * load-balanced {@link WebClient.Builder}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+	static final String CUSTOMERS_SERVICE = "customers-service";
+
+	static final String VETS_SERVICE = "vets-service";
+
+	@Bean(destroyMethod = "dispose")
+	ConnectionProvider customersServiceConnectionProvider(HttpClientProperties properties) {
+		return connectionProvider(CUSTOMERS_SERVICE, properties.forService(CUSTOMERS_SERVICE));
+	}
+
+	@Bean(destroyMethod = "dispose")
+	ConnectionProvider vetsServiceConnectionProvider(HttpClientProperties properties) {
+		return connectionProvider(VETS_SERVICE, properties.forService(VETS_SERVICE));
+	}
+
+	@Bean
+	@LoadBalanced
+	WebClient.Builder customersServiceWebClientBuilder(
+			@Qualifier("customersServiceConnectionProvider") ConnectionProvider connectionProvider,
+			HttpClientProperties properties) {
+		return webClientBuilder(connectionProvider, properties.forService(CUSTOMERS_SERVICE));
+	}
+
+	@Bean
+	@LoadBalanced
+	WebClient.Builder vetsServiceWebClientBuilder(
+			@Qualifier("vetsServiceConnectionProvider") ConnectionProvider connectionProvider,
+			HttpClientProperties properties) {
+		return webClientBuilder(connectionProvider, properties.forService(VETS_SERVICE));
+	}
+
+}
@@ -1,17 +1,30 @@
 package org.springframework.samples.petclinic.genai;
 
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.CHAT_MEMORY_CONVERSATION_ID_KEY;
 import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_CONVERSATION_ID;
 
+import java.util.regex.Pattern;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.samples.petclinic.genai.dto.ChatChunk;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.WebSession;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * This REST controller is being invoked by the in order to interact with the LLM
@@ -24,13 +37,23 @@ public class PetclinicChatClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(PetclinicChatClient.class);
 
+	private static final String UNAVAILABLE = "Chat is currently unavailable. Please try again later.";
+
+	static final String CONVERSATION_ID_HEADER = "X-Conversation-Id";
+
+	private static final Pattern CONVERSATION_ID = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+
 	// ChatModel is the primary interfaces for interacting with an LLM
 	// it is a request/response interface that implements the ModelModel
 	// interface. Make suer to visit the source code of the ChatModel and
 	// checkout the interfaces in the core Spring AI package.
 	private final ChatClient chatClient;
 
-	public PetclinicChatClient(ChatClient.Builder builder, ChatMemory chatMemory) {
+	private final Scheduler chatScheduler;
+
+	public PetclinicChatClient(ChatClient.Builder builder, ChatMemory chatMemory,
+			@Qualifier("chatScheduler") Scheduler chatScheduler) {
+		this.chatScheduler = chatScheduler;
 		// @formatter:off
 		this.chatClient = builder
 				.defaultSystem("""
@@ -45,7 +68,8 @@ public class PetclinicChatClient {
                           For owners, pets or visits - provide the correct data.
                           """)
 				.defaultAdvisors(
-						// Chat memory helps us keep context when using the chatbot for up to 10 previous messages.
+						// Chat memory keeps the context of the chatbot: the last 10 messages of the
+						// conversation named by the request are sent along with each exchange.
 						new MessageChatMemoryAdvisor(chatMemory, DEFAULT_CHAT_MEMORY_CONVERSATION_ID, 10), // CHAT MEMORY
 						new SimpleLoggerAdvisor()
 						)
@@ -53,23 +77,63 @@ public class PetclinicChatClient {
 				.build();
   }
 
-  @PostMapping("/chatclient")
-  public String exchange(@RequestBody String query) {
-	  try {
-		  //All chatbot messages go through this endpoint
-		  //and are passed to the LLM
-		  return
-		  this.chatClient
-		  .prompt()
-	      .user(
-	          u ->
-	              u.text(query)
-	              )
-	      .call()
-	      .content();
-	  } catch (Exception exception) {
-          LOG.error("Error processing chat message", exception);
- 	      return "Chat is currently unavailable. Please try again later.";
-	  }
-  }
+	/**
+	 * All chatbot messages go through this endpoint and are passed to the LLM. The exchange blocks
+	 * until the LLM has answered, functions included, so it runs on {@code chatScheduler}: the
+	 * event loop stays free and a burst of chats waits for a thread instead of adding threads.
+	 */
+	@PostMapping("/chatclient")
+	public Mono<String> exchange(@RequestBody String query,
+			@RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationIdHeader,
+			WebSession session) {
+		String conversationId = conversationIdOf(conversationIdHeader, session);
+		return Mono.fromCallable(() -> this.chatClient
+				.prompt()
+				.user(u -> u.text(query))
+				.advisors(a -> a.param(CHAT_MEMORY_CONVERSATION_ID_KEY, conversationId))
+				.call()
+				.content())
+			.subscribeOn(chatScheduler)
+			.onErrorResume(exception -> {
+				LOG.error("Error processing chat message", exception);
+				return Mono.just(UNAVAILABLE);
+			});
+	}
+
+	/**
+	 * Same exchange as {@link #exchange}, answered as server-sent events that each carry the next
+	 * piece of the answer as soon as the LLM produces it. The LLM stream is cancelled when the
+	 * client goes away; a failure ends the stream with an {@code error} event.
+	 */
+	@PostMapping(value = "/chatclient/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<ChatChunk>> exchangeStream(@RequestBody String query,
+			@RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationIdHeader,
+			WebSession session) {
+		String conversationId = conversationIdOf(conversationIdHeader, session);
+		return Flux.defer(() -> this.chatClient
+				.prompt()
+				.user(u -> u.text(query))
+				.advisors(a -> a.param(CHAT_MEMORY_CONVERSATION_ID_KEY, conversationId))
+				.stream()
+				.content())
+			.subscribeOn(chatScheduler)
+			.map(content -> ServerSentEvent.builder(new ChatChunk(content)).build())
+			.doOnCancel(() -> LOG.debug("Chat stream cancelled by the client"))
+			.onErrorResume(exception -> {
+				LOG.error("Error processing chat message", exception);
+				return Mono.just(ServerSentEvent.builder(new ChatChunk(UNAVAILABLE)).event("error").build());
+			});
+	}
+
+	/**
+	 * Each browser keeps its own conversation with the LLM: the one it names in the
+	 * {@code X-Conversation-Id} header, or else the one of its web session.
+	 */
+	static String conversationIdOf(String conversationIdHeader, WebSession session) {
+		if (conversationIdHeader != null && CONVERSATION_ID.matcher(conversationIdHeader).matches()) {
+			return conversationIdHeader;
+		}
+		session.start();
+		return session.getId();
+	}
 }
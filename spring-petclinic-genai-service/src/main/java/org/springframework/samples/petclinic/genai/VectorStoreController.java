@@ -9,6 +9,7 @@ import org.springframework.ai.document.DocumentReader;
 import org.springframework.ai.reader.JsonReader;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.ParameterizedTypeReference;
@@ -16,17 +17,24 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.samples.petclinic.genai.dto.Vet;
+import org.springframework.samples.petclinic.genai.vectorstore.HnswVectorStore;
+import org.springframework.samples.petclinic.genai.vectorstore.VectorSnapshot;
+import org.springframework.samples.petclinic.genai.vectorstore.VectorSnapshotConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Loads the veterinarians data into a vector store for the purpose of RAG functionality.
@@ -41,23 +49,42 @@ public class VectorStoreController {
 	private final VectorStore vectorStore;
     private final WebClient webClient;
 
-    public VectorStoreController(VectorStore vectorStore, WebClient.Builder webClientBuilder) {
+    public VectorStoreController(VectorStore vectorStore,
+            @Qualifier("vetsServiceWebClientBuilder") WebClient.Builder webClientBuilder) {
 		this.webClient = webClientBuilder.build();
 		this.vectorStore = vectorStore;
 	}
 
 	@EventListener
 	public void loadVetDataToVectorStoreOnStartup(ApplicationStartedEvent event) throws IOException {
+		long start = System.nanoTime();
+		Resource snapshot = new ClassPathResource("vectorstore.bin");
 		Resource resource = new ClassPathResource("vectorstore.json");
 
+		// The binary snapshot converted from vectorstore.json at build time is mapped in
+		// memory instead of parsing the embeddings
+		if (this.vectorStore instanceof HnswVectorStore hnswVectorStore && snapshot.exists()) {
+			hnswVectorStore.load(mapSnapshot(snapshot));
+			logger.info("vector store loaded from existing vectorstore.bin file in the classpath in {} ms",
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			return;
+		}
+
 		// Check if file exists
 		if (resource.exists()) {
 			// In order to save on AI credits, use a pre-embedded database that was saved
 			// to
 			// disk based on the current data in the h2 data.sql file
-			File file = resource.getFile();
-			((SimpleVectorStore) this.vectorStore).load(file);
-			logger.info("vector store loaded from existing vectorstore.json file in the classpath");
+			if (this.vectorStore instanceof SimpleVectorStore simpleVectorStore) {
+				simpleVectorStore.load(resource);
+			}
+			else {
+				try (InputStream json = resource.getInputStream()) {
+					this.vectorStore.add(VectorSnapshotConverter.readSimpleVectorStore(json));
+				}
+			}
+			logger.info("vector store loaded from existing vectorstore.json file in the classpath in {} ms",
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
 			return;
 		}
 
@@ -91,6 +118,22 @@ public class VectorStoreController {
 		logger.info("vector store loaded with {} documents", documents.size());
 	}
 
+	/**
+	 * Maps a snapshot in memory, from a copy in a temporary file when it is packaged in a jar.
+	 */
+	private VectorSnapshot mapSnapshot(Resource snapshot) throws IOException {
+		if (snapshot.isFile()) {
+			return VectorSnapshot.map(snapshot.getFile().toPath());
+		}
+		FileAttribute<Set<PosixFilePermission>> attr = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+		Path file = Files.createTempFile("vectorstore", ".bin", attr);
+		file.toFile().deleteOnExit();
+		try (InputStream inputStream = snapshot.getInputStream()) {
+			Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return VectorSnapshot.map(file);
+	}
+
 	public Resource convertListToJsonResource(List<Vet> vets) {
 		ObjectMapper objectMapper = new ObjectMapper();
 		try {
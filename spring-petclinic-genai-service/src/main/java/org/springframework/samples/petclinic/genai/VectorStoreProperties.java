@@ -0,0 +1,29 @@
+package org.springframework.samples.petclinic.genai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * The vector store searched for the vets matching a question: a {@code SimpleVectorStore}
+ * comparing the question with every vet, or an {@code HnswVectorStore} index. See
+ * {@link org.springframework.samples.petclinic.genai.vectorstore.HnswVectorStore} for the
+ * meaning of its settings; {@code efSearch} trades recall for latency.
+ */
+@ConfigurationProperties(prefix = "petclinic.genai.vector-store")
+public record VectorStoreProperties(
+		@DefaultValue("hnsw") Type type,
+		@DefaultValue Hnsw hnsw) {
+
+	public enum Type {
+
+		SIMPLE, HNSW
+
+	}
+
+	public record Hnsw(
+			@DefaultValue("16") int m,
+			@DefaultValue("200") int efConstruction,
+			@DefaultValue("64") int efSearch) {
+	}
+
+}
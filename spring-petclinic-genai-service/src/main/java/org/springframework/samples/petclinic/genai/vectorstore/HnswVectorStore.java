@@ -0,0 +1,404 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+
+/**
+ * In-process {@link VectorStore} answering similarity searches from a Hierarchical Navigable
+ * Small World graph (Malkov and Yashunin, 2016) instead of comparing the query with every
+ * embedding like {@code SimpleVectorStore}. The embeddings are kept off-heap by
+ * {@link OffHeapVectors}, and the documents themselves on the heap without them. They can be
+ * loaded from a memory-mapped {@link VectorSnapshot}.
+ * <p>
+ * Each document is linked to its {@code m} nearest neighbours ({@code 2 * m} on the bottom layer),
+ * found among {@code efConstruction} candidates. A search keeps the {@code efSearch} best
+ * candidates, or {@code topK} if higher, while walking the graph: a higher {@code efSearch}
+ * finds more of the exact nearest neighbours, a lower one answers faster.
+ * <p>
+ * Similarity is the cosine similarity, and results carry {@code 1 - similarity} as their
+ * {@code distance} metadata, like with {@code SimpleVectorStore}. Filter expressions are not
+ * supported. Deleted documents are no longer returned, but stay in the graph to keep it connected.
+ */
+public class HnswVectorStore implements VectorStore {
+
+	private static final Comparator<Candidate> CLOSEST_FIRST = Comparator.comparingDouble(Candidate::similarity)
+		.reversed();
+
+	private static final Comparator<Candidate> FURTHEST_FIRST = Comparator.comparingDouble(Candidate::similarity);
+
+	private final EmbeddingModel embeddingModel;
+
+	private final int m;
+
+	private final int efConstruction;
+
+	private final int efSearch;
+
+	private final double levelMultiplier;
+
+	private final SplittableRandom random = new SplittableRandom(42);
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+	/**
+	 * Documents by node, without their embedding.
+	 */
+	private final List<Document> documents = new ArrayList<>();
+
+	/**
+	 * Neighbours of each node on each of its layers: the count, then the nodes.
+	 */
+	private final List<int[][]> links = new ArrayList<>();
+
+	private final Map<String, Integer> nodesById = new HashMap<>();
+
+	private final BitSet deleted = new BitSet();
+
+	private OffHeapVectors vectors;
+
+	private int entryPoint = -1;
+
+	private int maxLevel = -1;
+
+	public HnswVectorStore(EmbeddingModel embeddingModel, int m, int efConstruction, int efSearch) {
+		if (m < 2 || efConstruction < 1 || efSearch < 1) {
+			throw new IllegalArgumentException("m must be at least 2, efConstruction and efSearch at least 1");
+		}
+		this.embeddingModel = embeddingModel;
+		this.m = m;
+		this.efConstruction = efConstruction;
+		this.efSearch = efSearch;
+		this.levelMultiplier = 1 / Math.log(m);
+	}
+
+	/**
+	 * Adds the documents, embedding those that do not have an embedding yet. A document replaces
+	 * the one with the same id.
+	 */
+	@Override
+	public void add(List<Document> documents) {
+		List<float[]> embeddings = documents.stream()
+			.map(document -> document.getEmbedding() != null && document.getEmbedding().length > 0
+					? document.getEmbedding() : embeddingModel.embed(document))
+			.toList();
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < documents.size(); i++) {
+				float[] unitVector = OffHeapVectors.normalize(embeddings.get(i));
+				if (vectors == null) {
+					vectors = new OffHeapVectors(unitVector.length);
+				}
+				link(vectors.add(unitVector), documents.get(i), unitVector);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Loads the documents of a snapshot in an empty store. Their embeddings are read from the
+	 * mapped snapshot file rather than copied off-heap; only the graph is built.
+	 */
+	public void load(VectorSnapshot snapshot) {
+		lock.writeLock().lock();
+		try {
+			if (vectors != null) {
+				throw new IllegalStateException("A snapshot can only be loaded in an empty store");
+			}
+			if (snapshot.size() == 0) {
+				return;
+			}
+			vectors = snapshot.vectors();
+			List<Document> snapshotDocuments = snapshot.documents();
+			for (int node = 0; node < snapshotDocuments.size(); node++) {
+				link(node, snapshotDocuments.get(node), vectors.get(node));
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Optional<Boolean> delete(List<String> idList) {
+		lock.writeLock().lock();
+		try {
+			for (String id : idList) {
+				Integer node = nodesById.remove(id);
+				if (node != null) {
+					deleted.set(node);
+				}
+			}
+			return Optional.of(true);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Document> similaritySearch(SearchRequest request) {
+		if (request.hasFilterExpression()) {
+			throw new UnsupportedOperationException("Filter expressions are not supported by " + getName());
+		}
+		float[] query = OffHeapVectors.normalize(embeddingModel.embed(request.getQuery()));
+		lock.readLock().lock();
+		try {
+			return search(query, request.getTopK(), efSearch).stream()
+				.filter(candidate -> candidate.similarity() >= request.getSimilarityThreshold())
+				.map(this::toDocument)
+				.toList();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Number of documents in the store.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return nodesById.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The {@code topK} live nodes closest to a unit-length query vector, closest first. Callers hold the read lock.
+	 */
+	List<Candidate> search(float[] unitQuery, int topK, int ef) {
+		if (entryPoint < 0) {
+			return List.of();
+		}
+		int closest = entryPoint;
+		for (int level = maxLevel; level > 0; level--) {
+			closest = greedyClosest(unitQuery, closest, level);
+		}
+		return searchLayer(unitQuery, closest, Math.max(ef, topK), 0).stream()
+			.filter(candidate -> !deleted.get(candidate.node()))
+			.limit(topK)
+			.toList();
+	}
+
+	/**
+	 * Indexes the document stored at {@code node}, which replaces the one with the same id.
+	 */
+	private void link(int node, Document document, float[] unitVector) {
+		this.documents.add(new Document(document.getId(), document.getContent(), document.getMetadata()));
+		Integer replaced = nodesById.put(document.getId(), node);
+		if (replaced != null) {
+			deleted.set(replaced);
+		}
+		insert(node, unitVector);
+	}
+
+	private void insert(int node, float[] unitVector) {
+		int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+		int[][] nodeLinks = new int[level + 1][];
+		for (int l = 0; l <= level; l++) {
+			nodeLinks[l] = new int[maxConnections(l) + 1];
+		}
+		links.add(nodeLinks);
+		if (entryPoint < 0) {
+			entryPoint = node;
+			maxLevel = level;
+			return;
+		}
+		int closest = entryPoint;
+		for (int l = maxLevel; l > level; l--) {
+			closest = greedyClosest(unitVector, closest, l);
+		}
+		for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+			List<Candidate> found = searchLayer(unitVector, closest, efConstruction, l);
+			List<Candidate> neighbours = selectNeighbours(found, m);
+			setLinks(nodeLinks[l], neighbours);
+			for (Candidate neighbour : neighbours) {
+				connect(neighbour.node(), new Candidate(node, neighbour.similarity()), l);
+			}
+			closest = found.get(0).node();
+		}
+		if (level > maxLevel) {
+			maxLevel = level;
+			entryPoint = node;
+		}
+	}
+
+	/**
+	 * Links {@code node} to {@code candidate}, keeping the best neighbours of {@code node} when it
+	 * already has as many as allowed.
+	 */
+	private void connect(int node, Candidate candidate, int level) {
+		int[] nodeLinks = links.get(node)[level];
+		int max = maxConnections(level);
+		if (nodeLinks[0] < max) {
+			nodeLinks[++nodeLinks[0]] = candidate.node();
+			return;
+		}
+		List<Candidate> candidates = new ArrayList<>(max + 1);
+		for (int i = 1; i <= nodeLinks[0]; i++) {
+			candidates.add(new Candidate(nodeLinks[i], vectors.similarity(node, nodeLinks[i])));
+		}
+		candidates.add(candidate);
+		candidates.sort(CLOSEST_FIRST);
+		setLinks(nodeLinks, selectNeighbours(candidates, max));
+	}
+
+	/**
+	 * Picks up to {@code count} neighbours among candidates sorted closest first, preferring those
+	 * closer to the node than to the neighbours already picked, so that links point in diverse
+	 * directions and keep clusters connected to each other.
+	 */
+	private List<Candidate> selectNeighbours(List<Candidate> candidates, int count) {
+		List<Candidate> selected = new ArrayList<>(count);
+		List<Candidate> pruned = new ArrayList<>();
+		for (Candidate candidate : candidates) {
+			if (selected.size() == count) {
+				break;
+			}
+			boolean diverse = true;
+			for (Candidate neighbour : selected) {
+				if (vectors.similarity(candidate.node(), neighbour.node()) > candidate.similarity()) {
+					diverse = false;
+					break;
+				}
+			}
+			(diverse ? selected : pruned).add(candidate);
+		}
+		for (int i = 0; i < pruned.size() && selected.size() < count; i++) {
+			selected.add(pruned.get(i));
+		}
+		return selected;
+	}
+
+	private int greedyClosest(float[] unitQuery, int start, int level) {
+		int closest = start;
+		float best = vectors.similarity(start, unitQuery);
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			int[] nodeLinks = links.get(closest)[level];
+			for (int i = 1; i <= nodeLinks[0]; i++) {
+				float similarity = vectors.similarity(nodeLinks[i], unitQuery);
+				if (similarity > best) {
+					best = similarity;
+					closest = nodeLinks[i];
+					improved = true;
+				}
+			}
+		}
+		return closest;
+	}
+
+	/**
+	 * The {@code ef} nodes closest to the query found from {@code start} on a layer, closest first.
+	 */
+	private List<Candidate> searchLayer(float[] unitQuery, int start, int ef, int level) {
+		Visited visitedNodes = visited.get().reset(vectors.size());
+		PriorityQueue<Candidate> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+		PriorityQueue<Candidate> results = new PriorityQueue<>(FURTHEST_FIRST);
+		Candidate first = new Candidate(start, vectors.similarity(start, unitQuery));
+		visitedNodes.add(start);
+		candidates.add(first);
+		results.add(first);
+		while (!candidates.isEmpty()) {
+			Candidate candidate = candidates.poll();
+			if (candidate.similarity() < results.peek().similarity()) {
+				break;
+			}
+			int[] nodeLinks = links.get(candidate.node())[level];
+			for (int i = 1; i <= nodeLinks[0]; i++) {
+				int neighbour = nodeLinks[i];
+				if (!visitedNodes.add(neighbour)) {
+					continue;
+				}
+				float similarity = vectors.similarity(neighbour, unitQuery);
+				if (results.size() < ef || similarity > results.peek().similarity()) {
+					Candidate found = new Candidate(neighbour, similarity);
+					candidates.add(found);
+					results.add(found);
+					if (results.size() > ef) {
+						results.poll();
+					}
+				}
+			}
+		}
+		List<Candidate> closestFirst = new ArrayList<>(results);
+		closestFirst.sort(CLOSEST_FIRST);
+		return closestFirst;
+	}
+
+	private int maxConnections(int level) {
+		return level == 0 ? 2 * m : m;
+	}
+
+	private Document toDocument(Candidate candidate) {
+		Document document = documents.get(candidate.node());
+		Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+		metadata.put("distance", 1 - candidate.similarity());
+		return new Document(document.getId(), document.getContent(), metadata);
+	}
+
+	private static void setLinks(int[] nodeLinks, List<Candidate> neighbours) {
+		nodeLinks[0] = neighbours.size();
+		for (int i = 0; i < neighbours.size(); i++) {
+			nodeLinks[i + 1] = neighbours.get(i).node();
+		}
+	}
+
+	record Candidate(int node, float similarity) {
+	}
+
+	/**
+	 * Nodes visited by the current search of a thread, cleared in constant time by moving to the next generation.
+	 */
+	private static final class Visited {
+
+		private int[] generations = new int[0];
+
+		private int generation;
+
+		Visited reset(int size) {
+			if (generations.length < size) {
+				generations = new int[Math.max(size, 2 * generations.length)];
+				generation = 0;
+			}
+			if (++generation == Integer.MAX_VALUE) {
+				Arrays.fill(generations, 0);
+				generation = 1;
+			}
+			return this;
+		}
+
+		boolean add(int node) {
+			if (generations[node] == generation) {
+				return false;
+			}
+			generations[node] = generation;
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit-length float vectors of the same dimension, stored outside the Java heap in chunks of
+ * direct buffers, so that millions of embeddings neither weigh on the garbage collector nor
+ * need a single buffer larger than 2 GB. With unit-length vectors, the cosine similarity of two
+ * vectors is their dot product.
+ * <p>
+ * The chunks may also be read-only buffers mapped from a {@link VectorSnapshot} file, in which
+ * case the vectors are read from the page cache without being copied. Vectors added afterwards go
+ * to new direct buffers.
+ * <p>
+ * Not thread-safe: {@link HnswVectorStore} only appends vectors under its write lock.
+ */
+final class OffHeapVectors {
+
+	private static final int CHUNK_BYTES = 64 * 1024 * 1024;
+
+	private final int dimensions;
+
+	private final int vectorsPerChunk;
+
+	private final List<FloatBuffer> chunks = new ArrayList<>();
+
+	private final ThreadLocal<Scratch> scratch;
+
+	private int size;
+
+	OffHeapVectors(int dimensions) {
+		this.dimensions = dimensions;
+		this.vectorsPerChunk = vectorsPerChunk(dimensions);
+		this.scratch = ThreadLocal.withInitial(() -> new Scratch(new float[dimensions], new float[dimensions]));
+	}
+
+	/**
+	 * Vectors already stored, unit-length, in chunks of {@link #vectorsPerChunk} vectors, the last
+	 * one possibly partially filled.
+	 */
+	OffHeapVectors(int dimensions, List<FloatBuffer> chunks, int size) {
+		this(dimensions);
+		if (chunks.size() != (size + vectorsPerChunk - 1) / vectorsPerChunk) {
+			throw new IllegalArgumentException(size + " vectors do not fill " + chunks.size() + " chunks");
+		}
+		this.chunks.addAll(chunks);
+		this.size = size;
+	}
+
+	/**
+	 * Number of vectors of {@code dimensions} stored in each chunk.
+	 */
+	static int vectorsPerChunk(int dimensions) {
+		return Math.max(1, CHUNK_BYTES / (dimensions * Float.BYTES));
+	}
+
+	int dimensions() {
+		return dimensions;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Stores the normalized copy of a vector.
+	 * @return the index of the stored vector
+	 */
+	int add(float[] vector) {
+		if (vector.length != dimensions) {
+			throw new IllegalArgumentException(
+					"Expected a vector of " + dimensions + " dimensions, got " + vector.length);
+		}
+		if (size == chunks.size() * vectorsPerChunk) {
+			chunks.add(allocateChunk());
+		}
+		else if (chunks.get(chunks.size() - 1).isReadOnly()) {
+			// The last mapped chunk is not full: copy it to append after its vectors
+			FloatBuffer mapped = chunks.get(chunks.size() - 1);
+			FloatBuffer copy = allocateChunk();
+			copy.put(0, mapped, 0, mapped.limit());
+			chunks.set(chunks.size() - 1, copy);
+		}
+		float norm = (float) Math.sqrt(dot(vector, vector));
+		FloatBuffer chunk = chunks.get(size / vectorsPerChunk);
+		int offset = (size % vectorsPerChunk) * dimensions;
+		for (int i = 0; i < dimensions; i++) {
+			chunk.put(offset + i, norm == 0 ? 0 : vector[i] / norm);
+		}
+		return size++;
+	}
+
+	/**
+	 * Copy of the stored vector at {@code index}.
+	 */
+	float[] get(int index) {
+		return copy(index, new float[dimensions]);
+	}
+
+	/**
+	 * Cosine similarity of the stored vector at {@code index} with a unit-length vector.
+	 */
+	float similarity(int index, float[] unitVector) {
+		return dot(copy(index, scratch.get().first()), unitVector);
+	}
+
+	/**
+	 * Cosine similarity of two stored vectors.
+	 */
+	float similarity(int index, int otherIndex) {
+		Scratch vectors = scratch.get();
+		return dot(copy(index, vectors.first()), copy(otherIndex, vectors.second()));
+	}
+
+	/**
+	 * Copies a stored vector in bulk, the dot product of two arrays being much faster than
+	 * reading the buffer float by float.
+	 */
+	private float[] copy(int index, float[] into) {
+		chunks.get(index / vectorsPerChunk).get((index % vectorsPerChunk) * dimensions, into, 0, dimensions);
+		return into;
+	}
+
+	private FloatBuffer allocateChunk() {
+		return ByteBuffer.allocateDirect(vectorsPerChunk * dimensions * Float.BYTES)
+			.order(ByteOrder.nativeOrder())
+			.asFloatBuffer();
+	}
+
+	static float[] normalize(float[] vector) {
+		float norm = (float) Math.sqrt(dot(vector, vector));
+		float[] unitVector = new float[vector.length];
+		for (int i = 0; i < vector.length; i++) {
+			unitVector[i] = norm == 0 ? 0 : vector[i] / norm;
+		}
+		return unitVector;
+	}
+
+	private static float dot(float[] a, float[] b) {
+		float sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	private record Scratch(float[] first, float[] second) {
+	}
+
+}
@@ -0,0 +1,176 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.document.Document;
+
+/**
+ * Binary snapshot of embedded documents, loaded by mapping the file in memory instead of parsing
+ * the embeddings like the JSON saved by {@code SimpleVectorStore}. All numbers are little-endian:
+ * <ul>
+ * <li>a header of {@value #HEADER_BYTES} bytes: the {@code PCVS} magic number, the format
+ * version, the number of documents, the number of dimensions and the offset of the documents,
+ * padded with zeros;</li>
+ * <li>the unit-length embeddings as a contiguous {@code float32} matrix, one row per
+ * document;</li>
+ * <li>the documents in the same order: their id, content and metadata as JSON, each as a
+ * UTF-8 string prefixed by its length in bytes.</li>
+ * </ul>
+ * Embeddings are stored normalized, which leaves their cosine similarity unchanged. Once mapped,
+ * they are handed as read-only buffers to an {@link HnswVectorStore} by
+ * {@link HnswVectorStore#load(VectorSnapshot)}, without being copied to the heap.
+ */
+public final class VectorSnapshot {
+
+	static final int MAGIC = 0x50435653;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_BYTES = 64;
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final int dimensions;
+
+	private final List<Document> documents;
+
+	private final List<FloatBuffer> chunks;
+
+	private VectorSnapshot(int dimensions, List<Document> documents, List<FloatBuffer> chunks) {
+		this.dimensions = dimensions;
+		this.documents = documents;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Writes documents having an embedding to a snapshot file.
+	 */
+	public static void write(List<Document> documents, Path path) throws IOException {
+		int dimensions = documents.isEmpty() ? 0 : documents.get(0).getEmbedding().length;
+		long matrixBytes = (long) documents.size() * dimensions * Float.BYTES;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(documents.size()).putInt(dimensions);
+			header.putLong(HEADER_BYTES + matrixBytes);
+			out.write(header.array());
+
+			ByteBuffer row = ByteBuffer.allocate(dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			for (Document document : documents) {
+				float[] embedding = document.getEmbedding();
+				if (embedding == null || embedding.length != dimensions) {
+					throw new IllegalArgumentException("Document " + document.getId() + " does not have an embedding of "
+							+ dimensions + " dimensions");
+				}
+				row.clear();
+				row.asFloatBuffer().put(OffHeapVectors.normalize(embedding));
+				out.write(row.array());
+			}
+
+			for (Document document : documents) {
+				writeString(out, document.getId());
+				writeString(out, document.getContent());
+				writeString(out, objectMapper.writeValueAsString(document.getMetadata()));
+			}
+		}
+	}
+
+	/**
+	 * Maps a snapshot file in memory. The file can be deleted afterwards: the mapping stays valid
+	 * until the snapshot is garbage collected.
+	 */
+	public static VectorSnapshot map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC) {
+				throw new IOException(path + " is not a vector snapshot");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(path + " has version " + version + ", expected " + VERSION);
+			}
+			int size = header.getInt();
+			int dimensions = header.getInt();
+			long documentsOffset = header.getLong();
+
+			// One mapping per chunk of OffHeapVectors, as a mapping cannot exceed 2 GB
+			List<FloatBuffer> chunks = new ArrayList<>();
+			int vectorsPerChunk = OffHeapVectors.vectorsPerChunk(Math.max(1, dimensions));
+			for (int first = 0; first < size; first += vectorsPerChunk) {
+				int vectors = Math.min(vectorsPerChunk, size - first);
+				long offset = HEADER_BYTES + (long) first * dimensions * Float.BYTES;
+				chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) vectors * dimensions * Float.BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN)
+					.asFloatBuffer());
+			}
+
+			MappedByteBuffer documentsBuffer = channel.map(FileChannel.MapMode.READ_ONLY, documentsOffset,
+					channel.size() - documentsOffset);
+			List<Document> documents = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				String id = readString(documentsBuffer);
+				String content = readString(documentsBuffer);
+				Map<String, Object> metadata = objectMapper.readValue(readString(documentsBuffer),
+						new TypeReference<Map<String, Object>>() {
+						});
+				documents.add(new Document(id, content, metadata));
+			}
+			return new VectorSnapshot(dimensions, List.copyOf(documents), List.copyOf(chunks));
+		}
+	}
+
+	/**
+	 * Number of documents in the snapshot.
+	 */
+	public int size() {
+		return documents.size();
+	}
+
+	public int dimensions() {
+		return dimensions;
+	}
+
+	/**
+	 * The documents, without their embedding.
+	 */
+	public List<Document> documents() {
+		return documents;
+	}
+
+	/**
+	 * The unit-length embeddings of the documents, mapped but not copied.
+	 */
+	OffHeapVectors vectors() {
+		return new OffHeapVectors(dimensions, chunks, documents.size());
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(Integer.reverseBytes(bytes.length));
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.order(ByteOrder.LITTLE_ENDIAN).getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.document.Document;
+
+/**
+ * Converts the JSON saved by {@code SimpleVectorStore#save} to a {@link VectorSnapshot}. The build
+ * runs it on {@code vectorstore.json} to package {@code vectorstore.bin} next to it:
+ * <pre>
+ * VectorSnapshotConverter &lt;vectorstore.json&gt; &lt;vectorstore.bin&gt;
+ * </pre>
+ */
+public final class VectorSnapshotConverter {
+
+	private VectorSnapshotConverter() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: VectorSnapshotConverter <vectorstore.json> <vectorstore.bin>");
+		}
+		List<Document> documents;
+		try (InputStream json = Files.newInputStream(Path.of(args[0]))) {
+			documents = readSimpleVectorStore(json);
+		}
+		Path snapshot = Path.of(args[1]);
+		Files.createDirectories(snapshot.toAbsolutePath().getParent());
+		VectorSnapshot.write(documents, snapshot);
+		System.out.printf("Converted %d documents from %s to %s%n", documents.size(), args[0], args[1]);
+	}
+
+	/**
+	 * Reads the documents saved by {@code SimpleVectorStore#save} with their embedding, so that
+	 * another vector store can be loaded without calling the embedding model.
+	 */
+	public static List<Document> readSimpleVectorStore(InputStream json) throws IOException {
+		Map<String, SavedDocument> saved = new ObjectMapper().readValue(json,
+				new TypeReference<Map<String, SavedDocument>>() {
+				});
+		return saved.values().stream().map(SavedDocument::toDocument).toList();
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	private record SavedDocument(String id, String content, Map<String, Object> metadata, float[] embedding) {
+
+		Document toDocument() {
+			Document document = new Document(id, content, metadata != null ? metadata : Map.of());
+			document.setEmbedding(embedding);
+			return document;
+		}
+
+	}
+
+}
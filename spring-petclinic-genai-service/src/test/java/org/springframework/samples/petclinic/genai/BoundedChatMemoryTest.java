@@ -0,0 +1,157 @@
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedChatMemoryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicLong nanos = new AtomicLong();
+
+	@Test
+	void keepsConversationsApart() {
+		BoundedChatMemory memory = memory(100, 20, DataSize.ofKilobytes(32), null);
+
+		memory.add("george-franklin", List.of(new UserMessage("Which vets are radiologists?")));
+		memory.add("betty-davis", List.of(new UserMessage("Add a dog named Moopsie")));
+
+		assertThat(memory.get("george-franklin", 10)).extracting(Message::getContent)
+			.containsExactly("Which vets are radiologists?");
+		assertThat(memory.get("betty-davis", 10)).extracting(Message::getContent)
+			.containsExactly("Add a dog named Moopsie");
+	}
+
+	@Test
+	void keepsTheLatestMessagesWithinTheMessageBudget() {
+		BoundedChatMemory memory = memory(100, 4, DataSize.ofKilobytes(32), null);
+
+		IntStream.range(0, 6).forEach(i -> memory.add("george-franklin", List.of(new UserMessage("question " + i))));
+
+		assertThat(memory.get("george-franklin", 10)).extracting(Message::getContent)
+			.containsExactly("question 2", "question 3", "question 4", "question 5");
+		assertThat(memory.get("george-franklin", 2)).extracting(Message::getContent)
+			.containsExactly("question 4", "question 5");
+		assertThat(meterRegistry.get("genai.chat.memory.trimmed").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void keepsTheLatestMessagesWithinTheByteBudget() {
+		BoundedChatMemory memory = memory(100, 20, DataSize.ofBytes(25), null);
+
+		memory.add("george-franklin", List.of(new UserMessage("0123456789"), new AssistantMessage("0123456789")));
+		memory.add("george-franklin", List.of(new UserMessage("0123456789")));
+
+		assertThat(memory.get("george-franklin", 10)).hasSize(2);
+
+		memory.add("george-franklin", List.of(new UserMessage("a message longer than the whole budget")));
+
+		assertThat(memory.get("george-franklin", 10)).extracting(Message::getContent)
+			.containsExactly("a message longer than the whole budget");
+	}
+
+	@Test
+	void forgetsIdleConversations() {
+		BoundedChatMemory memory = memory(100, 20, DataSize.ofKilobytes(32), null);
+		memory.add("george-franklin", List.of(new UserMessage("Which vets are radiologists?")));
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+
+		assertThat(memory.conversationCount()).isZero();
+		assertThat(memory.get("george-franklin", 10)).isEmpty();
+		assertThat(meterRegistry.get("cache.evictions").tag("cache", BoundedChatMemory.CACHE_NAME)
+			.functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedConversationsBeyondTheLimit() {
+		BoundedChatMemory memory = memory(10, 20, DataSize.ofKilobytes(32), null);
+
+		IntStream.range(0, 50).forEach(i -> memory.add("conversation-" + i, List.of(new UserMessage("hello"))));
+
+		assertThat(memory.conversationCount()).isLessThanOrEqualTo(10);
+		assertThat(meterRegistry.get("cache.size").tag("cache", BoundedChatMemory.CACHE_NAME).gauge().value())
+			.isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	void spillsEvictedConversationsAndReadsThemBack(@TempDir Path spillDirectory) {
+		BoundedChatMemory memory = memory(1, 20, DataSize.ofKilobytes(32), spillDirectory);
+		memory.add("george-franklin", List.of(new UserMessage("Which vets are radiologists?"),
+				new AssistantMessage("Dr. Helen Leary and Dr. Linda Douglas.")));
+
+		IntStream.range(0, 20).forEach(i -> memory.add("conversation-" + i, List.of(new UserMessage("hello"))));
+		memory.conversationCount();
+
+		assertThat(meterRegistry.get("genai.chat.memory.spilled").counter().count()).isPositive();
+		assertThat(memory.get("george-franklin", 10)).extracting(Message::getContent)
+			.containsExactly("Which vets are radiologists?", "Dr. Helen Leary and Dr. Linda Douglas.");
+	}
+
+	@Test
+	void clearsSpilledConversations(@TempDir Path spillDirectory) {
+		BoundedChatMemory memory = memory(1, 20, DataSize.ofKilobytes(32), spillDirectory);
+		memory.add("george-franklin", List.of(new UserMessage("Which vets are radiologists?")));
+		IntStream.range(0, 20).forEach(i -> memory.add("conversation-" + i, List.of(new UserMessage("hello"))));
+		memory.conversationCount();
+
+		memory.clear("george-franklin");
+
+		assertThat(memory.get("george-franklin", 10)).isEmpty();
+	}
+
+	@Test
+	void deletesSpilledConversationsOnceIdle(@TempDir Path spillDirectory) {
+		BoundedChatMemory memory = memory(1, 20, DataSize.ofKilobytes(32), spillDirectory);
+		IntStream.range(0, 20).forEach(i -> memory.add("conversation-" + i, List.of(new UserMessage("hello"))));
+		memory.conversationCount();
+		assertThat(memory.spilledConversationCount()).isPositive();
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+
+		assertThat(memory.spilledConversationCount()).isZero();
+		assertThat(spillDirectory.toFile().listFiles()).isEmpty();
+	}
+
+	@Test
+	void keepsTheSpilledConversationsWithinTheDirectorySize(@TempDir Path spillDirectory) {
+		BoundedChatMemory memory = memory(1, 20, DataSize.ofKilobytes(32), spillDirectory, DataSize.ofBytes(500));
+
+		IntStream.range(0, 50).forEach(i -> memory.add("conversation-" + i, List.of(new UserMessage("hello"))));
+		memory.conversationCount();
+		memory.spilledConversationCount();
+
+		assertThat(meterRegistry.get("genai.chat.memory.spilled").counter().count()).isGreaterThan(20);
+		assertThat(Arrays.stream(spillDirectory.toFile().listFiles()).mapToLong(File::length).sum())
+			.isLessThanOrEqualTo(500);
+	}
+
+	private BoundedChatMemory memory(int maxConversations, int maxMessages, DataSize maxBytes, Path spillDirectory) {
+		return memory(maxConversations, maxMessages, maxBytes, spillDirectory, DataSize.ofMegabytes(1));
+	}
+
+	private BoundedChatMemory memory(int maxConversations, int maxMessages, DataSize maxBytes, Path spillDirectory,
+			DataSize maxSpilledBytes) {
+		ChatProperties.Memory properties = new ChatProperties.Memory(maxConversations, Duration.ofMinutes(30),
+				maxMessages, maxBytes, spillDirectory, maxSpilledBytes);
+		return new BoundedChatMemory(properties, meterRegistry, nanos::get);
+	}
+
+}
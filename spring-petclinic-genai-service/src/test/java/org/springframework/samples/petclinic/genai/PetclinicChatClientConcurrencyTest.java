@@ -0,0 +1,136 @@
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Many simultaneous chats against an LLM that takes a while to answer: every chat is answered,
+ * by at most {@code maxConcurrency} threads of the chat scheduler.
+ */
+class PetclinicChatClientConcurrencyTest {
+
+	private static final int MAX_CONCURRENCY = 20;
+
+	private static final int CHATS = 400;
+
+	private final SlowChatModel chatModel = new SlowChatModel(Duration.ofMillis(100));
+
+	private final Scheduler chatScheduler = Schedulers.newBoundedElastic(MAX_CONCURRENCY, CHATS, "genai-chat");
+
+	@AfterEach
+	void disposeScheduler() {
+		chatScheduler.dispose();
+	}
+
+	@Test
+	void answersManySimultaneousChatsOnBoundedThreads() {
+		PetclinicChatClient client = new PetclinicChatClient(ChatClient.builder(chatModel), new NoChatMemory(),
+				chatScheduler);
+
+		List<String> answers = Flux.range(0, CHATS)
+			.flatMap(i -> client.exchange("Which vets are radiologists?", "conversation-" + i, null), CHATS)
+			.collectList()
+			.block(Duration.ofSeconds(30));
+
+		assertThat(answers).hasSize(CHATS).containsOnly(SlowChatModel.ANSWER);
+		assertThat(chatModel.maxInFlight.get()).isLessThanOrEqualTo(MAX_CONCURRENCY);
+		assertThat(chatModel.threads).hasSizeLessThanOrEqualTo(MAX_CONCURRENCY)
+			.allMatch(name -> name.startsWith("genai-chat"));
+	}
+
+	@Test
+	void answersChatsBeyondTheQueueAsUnavailable() {
+		Scheduler saturated = Schedulers.newBoundedElastic(1, 1, "genai-chat-saturated");
+		try {
+			PetclinicChatClient client = new PetclinicChatClient(ChatClient.builder(chatModel), new NoChatMemory(),
+					saturated);
+
+			List<String> answers = Flux.range(0, 10)
+				.flatMap(i -> client.exchange("Hello", "conversation-" + i, null), 10)
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+			assertThat(answers).hasSize(10).contains(SlowChatModel.ANSWER)
+				.contains("Chat is currently unavailable. Please try again later.");
+		}
+		finally {
+			saturated.dispose();
+		}
+	}
+
+	/**
+	 * Answers every prompt after {@code latency}, recording how many prompts it was answering at once
+	 * and on which threads.
+	 */
+	private static final class SlowChatModel implements ChatModel {
+
+		static final String ANSWER = "Dr. Helen Leary and Dr. Linda Douglas are radiologists.";
+
+		private final Duration latency;
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		private SlowChatModel(Duration latency) {
+			this.latency = latency;
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			threads.add(Thread.currentThread().getName());
+			try {
+				Thread.sleep(latency.toMillis());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				inFlight.decrementAndGet();
+			}
+			return new ChatResponse(List.of(new Generation(new AssistantMessage(ANSWER))));
+		}
+
+	}
+
+	private static final class NoChatMemory implements ChatMemory {
+
+		@Override
+		public void add(String conversationId, List<Message> messages) {
+		}
+
+		@Override
+		public List<Message> get(String conversationId, int lastN) {
+			return List.of();
+		}
+
+		@Override
+		public void clear(String conversationId) {
+		}
+
+	}
+
+}
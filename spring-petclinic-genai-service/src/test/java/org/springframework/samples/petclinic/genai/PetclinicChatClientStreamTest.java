@@ -0,0 +1,154 @@
+package org.springframework.samples.petclinic.genai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.samples.petclinic.genai.dto.ChatChunk;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+/**
+ * The {@code /chatclient/stream} endpoint against a stub {@link ChatModel} streaming its answer
+ * piece by piece.
+ */
+class PetclinicChatClientStreamTest {
+
+	private static final ParameterizedTypeReference<ServerSentEvent<ChatChunk>> CHAT_EVENT =
+			new ParameterizedTypeReference<>() {
+			};
+
+	private final Scheduler chatScheduler = Schedulers.newBoundedElastic(4, 10, "genai-chat");
+
+	@AfterEach
+	void disposeScheduler() {
+		chatScheduler.dispose();
+	}
+
+	@Test
+	void sendsEveryPieceAsSoonAsTheModelProducesIt() {
+		WebTestClient client = clientOf(() -> Flux
+			.just("Dr. Helen Leary", " and Dr. Linda Douglas", "\nare radiologists.")
+			.delayElements(Duration.ofMillis(300)));
+
+		List<Tuple2<Long, ServerSentEvent<ChatChunk>>> events = streamOf(client, "Which vets are radiologists?")
+			.elapsed()
+			.collectList()
+			.block(Duration.ofSeconds(10));
+
+		assertThat(events).extracting(event -> event.getT2().data().content())
+			.containsExactly("Dr. Helen Leary", " and Dr. Linda Douglas", "\nare radiologists.");
+		// Each piece arrives on its own, instead of all of them at the end
+		assertThat(events).allSatisfy(event -> assertThat(event.getT1()).isGreaterThanOrEqualTo(200));
+	}
+
+	@Test
+	void cancelsTheModelStreamWhenTheClientGoesAway() throws InterruptedException {
+		CountDownLatch cancelled = new CountDownLatch(1);
+		WebTestClient client = clientOf(() -> Flux.interval(Duration.ofMillis(50))
+			.map(i -> " piece " + i)
+			.doOnCancel(cancelled::countDown));
+
+		List<ServerSentEvent<ChatChunk>> events = streamOf(client, "Tell me a long story").take(2)
+			.collectList()
+			.block(Duration.ofSeconds(10));
+
+		assertThat(events).hasSize(2);
+		assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void endsWithAnErrorEventWhenTheModelFails() {
+		WebTestClient client = clientOf(() -> Flux.concat(Flux.just("Dr."),
+				Flux.error(new IllegalStateException("LLM provider unavailable"))));
+
+		List<ServerSentEvent<ChatChunk>> events = streamOf(client, "Which vets are radiologists?").collectList()
+			.block(Duration.ofSeconds(10));
+
+		assertThat(events).hasSize(2);
+		assertThat(events.get(0).data().content()).isEqualTo("Dr.");
+		assertThat(events.get(1).event()).isEqualTo("error");
+		assertThat(events.get(1).data().content()).isEqualTo("Chat is currently unavailable. Please try again later.");
+	}
+
+	private WebTestClient clientOf(Supplier<Flux<String>> pieces) {
+		PetclinicChatClient chatClient = new PetclinicChatClient(ChatClient.builder(new StreamingChatModel(pieces)),
+				new NoChatMemory(), chatScheduler);
+		return WebTestClient.bindToController(chatClient).build();
+	}
+
+	private static Flux<ServerSentEvent<ChatChunk>> streamOf(WebTestClient client, String query) {
+		return client.post()
+			.uri("/chatclient/stream")
+			.contentType(MediaType.TEXT_PLAIN)
+			.accept(MediaType.TEXT_EVENT_STREAM)
+			.bodyValue(query)
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+			.returnResult(CHAT_EVENT)
+			.getResponseBody();
+	}
+
+	/**
+	 * Streams the pieces of the supplier as the answer to every prompt.
+	 */
+	private static final class StreamingChatModel implements ChatModel {
+
+		private final Supplier<Flux<String>> pieces;
+
+		private StreamingChatModel(Supplier<Flux<String>> pieces) {
+			this.pieces = pieces;
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			throw new UnsupportedOperationException("Only streaming is expected");
+		}
+
+		@Override
+		public Flux<ChatResponse> stream(Prompt prompt) {
+			return pieces.get().map(piece -> new ChatResponse(List.of(new Generation(new AssistantMessage(piece)))));
+		}
+
+	}
+
+	private static final class NoChatMemory implements ChatMemory {
+
+		@Override
+		public void add(String conversationId, List<Message> messages) {
+		}
+
+		@Override
+		public List<Message> get(String conversationId, int lastN) {
+			return List.of();
+		}
+
+		@Override
+		public void clear(String conversationId) {
+		}
+
+	}
+
+}
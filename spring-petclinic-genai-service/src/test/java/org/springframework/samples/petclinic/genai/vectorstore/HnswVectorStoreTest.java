@@ -0,0 +1,138 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+class HnswVectorStoreTest {
+
+	private static final int DIMENSIONS = 64;
+
+	private final ClusteredEmbeddingModel embeddingModel = new ClusteredEmbeddingModel();
+
+	@Test
+	void findsMostOfTheExactNearestNeighbours() {
+		HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 16, 100, 64);
+		List<Document> documents = IntStream.range(0, 3000)
+			.mapToObj(i -> new Document("vet-" + i, "vet " + i, Map.of()))
+			.toList();
+		vectorStore.add(documents);
+
+		double recall = IntStream.range(0, 50).mapToDouble(q -> {
+			String query = "question " + q;
+			List<String> exact = exactNearest(documents, query, 20);
+			List<String> found = vectorStore.similaritySearch(SearchRequest.query(query).withTopK(20))
+				.stream()
+				.map(Document::getId)
+				.toList();
+			return found.stream().filter(exact::contains).count() / 20.0;
+		}).average().orElseThrow();
+
+		assertThat(recall).isGreaterThan(0.9);
+	}
+
+	@Test
+	void returnsTheClosestDocumentsFirstWithTheirDistance() {
+		HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 8, 50, 16);
+		vectorStore.add(List.of(new Document("leary", "Helen Leary radiology", Map.of("id", 2)),
+				new Document("douglas", "Linda Douglas surgery", Map.of("id", 3))));
+
+		List<Document> found = vectorStore.similaritySearch(SearchRequest.query("Helen Leary radiology").withTopK(2));
+
+		assertThat(found).extracting(Document::getId).containsExactly("leary", "douglas");
+		assertThat(found.get(0).getMetadata()).containsEntry("id", 2);
+		assertThat((float) found.get(0).getMetadata().get("distance")).isCloseTo(0f, offset(1e-5f));
+	}
+
+	@Test
+	void doesNotReturnDeletedOrReplacedDocuments() {
+		HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 8, 50, 16);
+		vectorStore.add(List.of(new Document("leary", "Helen Leary radiology", Map.of()),
+				new Document("douglas", "Linda Douglas surgery", Map.of()),
+				new Document("ortega", "Rafael Ortega surgery", Map.of())));
+
+		vectorStore.delete(List.of("douglas"));
+		vectorStore.add(List.of(new Document("ortega", "Rafael Ortega dentistry", Map.of())));
+
+		List<Document> found = vectorStore.similaritySearch(SearchRequest.query("surgery").withTopK(10));
+		assertThat(found).extracting(Document::getId).containsExactlyInAnyOrder("leary", "ortega");
+		assertThat(found).extracting(Document::getContent).contains("Rafael Ortega dentistry");
+		assertThat(vectorStore.size()).isEqualTo(2);
+	}
+
+	@Test
+	void answersAnEmptyStore() {
+		HnswVectorStore vectorStore = new HnswVectorStore(embeddingModel, 16, 100, 64);
+
+		assertThat(vectorStore.similaritySearch(SearchRequest.query("surgery"))).isEmpty();
+	}
+
+	private List<String> exactNearest(List<Document> documents, String query, int topK) {
+		float[] queryVector = OffHeapVectors.normalize(embeddingModel.embed(query));
+		return documents.stream()
+			.map(document -> Map.entry(document.getId(),
+					dot(OffHeapVectors.normalize(embeddingModel.embed(document.getContent())), queryVector)))
+			.sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+			.limit(topK)
+			.map(Map.Entry::getKey)
+			.toList();
+	}
+
+	private static double dot(float[] a, float[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Embeds every text as a point around one of 20 cluster centres, like embeddings of texts on a
+	 * few topics.
+	 */
+	private static final class ClusteredEmbeddingModel implements EmbeddingModel {
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<String> texts = request.getInstructions();
+			return new EmbeddingResponse(IntStream.range(0, texts.size())
+				.mapToObj(i -> new Embedding(embed(texts.get(i)), i))
+				.toList());
+		}
+
+		@Override
+		public float[] embed(String text) {
+			SplittableRandom centre = new SplittableRandom(Math.floorMod(text.hashCode(), 20));
+			SplittableRandom noise = new SplittableRandom(text.hashCode());
+			float[] embedding = new float[DIMENSIONS];
+			for (int i = 0; i < DIMENSIONS; i++) {
+				embedding[i] = (float) (centre.nextGaussian() + 0.5 * noise.nextGaussian());
+			}
+			return embedding;
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return embed(document.getContent());
+		}
+
+		@Override
+		public int dimensions() {
+			return DIMENSIONS;
+		}
+
+	}
+
+}
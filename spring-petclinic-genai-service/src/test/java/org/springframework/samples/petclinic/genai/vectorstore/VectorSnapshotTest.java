@@ -0,0 +1,113 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.core.io.ClassPathResource;
+
+class VectorSnapshotTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void mapsTheDocumentsAndNormalizedEmbeddingsWritten() throws IOException {
+		Path file = directory.resolve("vectorstore.bin");
+		VectorSnapshot.write(List.of(document("leary", "Helen Leary radiology", Map.of("id", 2), 3, 4),
+				document("douglas", "Linda Douglas surgery ✓", Map.of(), 0, 2)), file);
+
+		VectorSnapshot snapshot = VectorSnapshot.map(file);
+
+		assertThat(snapshot.size()).isEqualTo(2);
+		assertThat(snapshot.dimensions()).isEqualTo(2);
+		assertThat(snapshot.documents()).extracting(Document::getId).containsExactly("leary", "douglas");
+		assertThat(snapshot.documents()).extracting(Document::getContent)
+			.containsExactly("Helen Leary radiology", "Linda Douglas surgery ✓");
+		assertThat(snapshot.documents().get(0).getMetadata()).containsEntry("id", 2);
+		OffHeapVectors vectors = snapshot.vectors();
+		assertThat(vectors.get(0)).containsExactly(new float[] { 0.6f, 0.8f }, offset(1e-6f));
+		assertThat(vectors.get(1)).containsExactly(new float[] { 0f, 1f }, offset(1e-6f));
+	}
+
+	@Test
+	void loadsTheConvertedVectorStoreJsonInAnHnswIndex() throws IOException {
+		List<Document> documents;
+		try (InputStream json = new ClassPathResource("vectorstore.json").getInputStream()) {
+			documents = VectorSnapshotConverter.readSimpleVectorStore(json);
+		}
+		Path file = directory.resolve("vectorstore.bin");
+		VectorSnapshot.write(documents, file);
+
+		EmbeddingModel embeddingModel = new EmbeddingOfDocument(documents.get(0));
+		HnswVectorStore mapped = new HnswVectorStore(embeddingModel, 16, 200, 64);
+		mapped.load(VectorSnapshot.map(file));
+		HnswVectorStore parsed = new HnswVectorStore(embeddingModel, 16, 200, 64);
+		parsed.add(documents);
+
+		SearchRequest request = SearchRequest.query(documents.get(0).getContent()).withTopK(3);
+		List<Document> found = mapped.similaritySearch(request);
+		assertThat(mapped.size()).isEqualTo(documents.size());
+		assertThat(found.get(0).getId()).isEqualTo(documents.get(0).getId());
+		assertThat(found).extracting(Document::getId)
+			.containsExactlyElementsOf(parsed.similaritySearch(request).stream().map(Document::getId).toList());
+	}
+
+	@Test
+	void addsDocumentsAfterTheMappedOnes() throws IOException {
+		Path file = directory.resolve("vectorstore.bin");
+		VectorSnapshot.write(List.of(document("leary", "Helen Leary radiology", Map.of(), 1, 0)), file);
+		Document added = document("douglas", "Linda Douglas surgery", Map.of(), 0, 1);
+		HnswVectorStore vectorStore = new HnswVectorStore(new EmbeddingOfDocument(added), 8, 50, 16);
+
+		vectorStore.load(VectorSnapshot.map(file));
+		vectorStore.add(List.of(added));
+
+		assertThat(vectorStore.similaritySearch(SearchRequest.query("surgery").withTopK(2)))
+			.extracting(Document::getId)
+			.containsExactly("douglas", "leary");
+		assertThatIllegalStateException().isThrownBy(() -> vectorStore.load(VectorSnapshot.map(file)));
+	}
+
+	private static Document document(String id, String content, Map<String, Object> metadata, float... embedding) {
+		Document document = new Document(id, content, metadata);
+		document.setEmbedding(embedding);
+		return document;
+	}
+
+	/**
+	 * Embeds every query like a given document.
+	 */
+	private record EmbeddingOfDocument(Document document) implements EmbeddingModel {
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public float[] embed(String text) {
+			return document.getEmbedding();
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return document.getEmbedding();
+		}
+
+	}
+
+}
@@ -19,6 +19,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.commons.metrics.VirtualThreadPinningMetrics;
 import org.springframework.samples.petclinic.vets.system.VetsProperties;
 
 /**
@@ -26,6 +28,7 @@ import org.springframework.samples.petclinic.vets.system.VetsProperties;
  */
 @EnableDiscoveryClient
 @SpringBootApplication
+@Import(VirtualThreadPinningMetrics.class)
 @EnableConfigurationProperties(VetsProperties.class)
 public class VetsServiceApplication {
 
@@ -18,8 +18,6 @@ package org.springframework.samples.petclinic.vets.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.xml.bind.annotation.XmlElement;
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
 
 import java.util.*;
 
@@ -37,6 +35,9 @@ import java.util.*;
 @Table(name = "vets")
 public class Vet {
 
+    private static final Comparator<Specialty> SPECIALTY_NAME_ORDER =
+        Comparator.comparing(Specialty::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -54,6 +55,13 @@ public class Vet {
         inverseJoinColumns = @JoinColumn(name = "specialty_id"))
     private Set<Specialty> specialties;
 
+    /**
+     * Specialties sorted by name, with the collection they were sorted from. Built on first access, and rebuilt
+     * when a specialty is added, when Hibernate replaced the collection, or when a renamed specialty is out of order.
+     */
+    @Transient
+    private SortedSpecialties sortedSpecialties;
+
     protected Set<Specialty> getSpecialtiesInternal() {
         if (this.specialties == null) {
             this.specialties = new HashSet<>();
@@ -63,9 +71,13 @@ public class Vet {
 
     @XmlElement
     public List<Specialty> getSpecialties() {
-        List<Specialty> sortedSpecs = new ArrayList<>(getSpecialtiesInternal());
-        PropertyComparator.sort(sortedSpecs, new MutableSortDefinition("name", true, true));
-        return Collections.unmodifiableList(sortedSpecs);
+        Set<Specialty> specialties = getSpecialtiesInternal();
+        SortedSpecialties sorted = this.sortedSpecialties;
+        if (sorted == null || !sorted.isSortedViewOf(specialties)) {
+            sorted = new SortedSpecialties(specialties, specialties.stream().sorted(SPECIALTY_NAME_ORDER).toList());
+            this.sortedSpecialties = sorted;
+        }
+        return sorted.specialties();
     }
 
     public int getNrOfSpecialties() {
@@ -74,6 +86,7 @@ public class Vet {
 
     public void addSpecialty(Specialty specialty) {
         getSpecialtiesInternal().add(specialty);
+        this.sortedSpecialties = null;
     }
 
     public Integer getId() {
@@ -99,4 +112,25 @@ public class Vet {
     public void setLastName(String lastName) {
         this.lastName = lastName;
     }
+
+    /**
+     * Immutable, so that a cached vet read by several threads never exposes a list sorted from another collection.
+     */
+    private record SortedSpecialties(Set<Specialty> source, List<Specialty> specialties) {
+
+        /**
+         * Checked on every access without allocating: the same collection, of the same size, still in name order.
+         */
+        boolean isSortedViewOf(Set<Specialty> collection) {
+            if (source != collection || specialties.size() != collection.size()) {
+                return false;
+            }
+            for (int i = 1; i < specialties.size(); i++) {
+                if (SPECIALTY_NAME_ORDER.compare(specialties.get(i - 1), specialties.get(i)) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
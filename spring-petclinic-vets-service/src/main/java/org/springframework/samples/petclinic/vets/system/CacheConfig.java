@@ -15,16 +15,43 @@
  */
 package org.springframework.samples.petclinic.vets.system;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Cache could be disable in unit test.
+ * <p>
+ * Caches are bounded by {@code vets.cache.heap-size} entries, expire {@code vets.cache.ttl} seconds
+ * after being written, and record statistics so that hit, miss and eviction metrics are published.
+ *
  * @author Maciej Szarlinski
  */
 @Configuration
 @EnableCaching
 @Profile("production")
 class CacheConfig {
+
+    static final String VETS_CACHE = "vets";
+
+    @Bean
+    CacheManager cacheManager(VetsProperties vetsProperties) {
+        VetsProperties.Cache cache = vetsProperties.cache();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(cache.ttl()))
+            .maximumSize(cache.heapSize())
+            .recordStats());
+        // Declaring the caches up front registers their metrics at startup
+        cacheManager.setCacheNames(List.of(VETS_CACHE));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
 }
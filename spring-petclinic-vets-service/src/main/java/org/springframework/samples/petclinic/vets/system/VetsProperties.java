@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.vets.system;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 /**
  * Typesafe custom configuration.
@@ -24,11 +25,15 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "vets")
 public record VetsProperties(
-    Cache cache
+    @DefaultValue Cache cache
 ) {
+    /**
+     * @param ttl      time to live of a cache entry, in seconds
+     * @param heapSize maximum number of entries kept on heap
+     */
     public record Cache(
-        int ttl,
-        int heapSize
+        @DefaultValue("60") int ttl,
+        @DefaultValue("100") int heapSize
     ) {
     }
 }
@@ -17,12 +17,12 @@ package org.springframework.samples.petclinic.vets.web;
 
 import java.util.List;
 
-import org.springframework.cache.annotation.Cacheable;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.samples.petclinic.vets.model.Vet;
-import org.springframework.samples.petclinic.vets.model.VetRepository;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * @author Juergen Hoeller
@@ -35,15 +35,23 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 class VetResource {
 
-    private final VetRepository vetRepository;
+    private final VetsSnapshotLoader vetsSnapshotLoader;
 
-    VetResource(VetRepository vetRepository) {
-        this.vetRepository = vetRepository;
+    VetResource(VetsSnapshotLoader vetsSnapshotLoader) {
+        this.vetsSnapshotLoader = vetsSnapshotLoader;
     }
 
+    /**
+     * Sends an ETag, and answers 304 Not Modified to a conditional request for an unchanged list. There is
+     * no Last-Modified header: the vets carry no modification time, and the time the list was cached at
+     * would differ between instances and restarts.
+     */
     @GetMapping
-    @Cacheable("vets")
-    public List<Vet> showResourcesVetList() {
-        return vetRepository.findAll();
+    public List<Vet> showResourcesVetList(WebRequest request) throws JsonProcessingException {
+        VetsSnapshotLoader.VetsSnapshot snapshot = vetsSnapshotLoader.load();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return snapshot.vets();
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vets.web;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.samples.petclinic.vets.model.Vet;
+import org.springframework.samples.petclinic.vets.model.VetRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Loads the vet list together with the validators sent on {@code GET /vets}. The whole snapshot is
+ * cached, so that the ETag is only computed when the list is reloaded from the database.
+ */
+@Component
+class VetsSnapshotLoader {
+
+    private final VetRepository vetRepository;
+
+    private final ObjectMapper objectMapper;
+
+    VetsSnapshotLoader(VetRepository vetRepository, ObjectMapper objectMapper) {
+        this.vetRepository = vetRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Cacheable("vets")
+    public VetsSnapshot load() throws JsonProcessingException {
+        List<Vet> vets = vetRepository.findAll();
+        String etag = '"' + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(vets)) + '"';
+        return new VetsSnapshot(vets, etag);
+    }
+
+    /**
+     * @param etag strong ETag computed from the JSON representation of the vets
+     */
+    record VetsSnapshot(
+        List<Vet> vets,
+        String etag
+    ) {
+    }
+}
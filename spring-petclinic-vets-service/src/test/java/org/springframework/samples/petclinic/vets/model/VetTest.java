@@ -0,0 +1,44 @@
+package org.springframework.samples.petclinic.vets.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the sorted view of the specialties of a {@link Vet}.
+ */
+class VetTest {
+
+    private final Vet vet = new Vet();
+
+    @Test
+    void sortsTheSpecialtiesOnceUntilTheyChange() {
+        vet.addSpecialty(specialty("surgery"));
+        vet.addSpecialty(specialty("Dentistry"));
+
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("Dentistry", "surgery");
+        assertThat(vet.getSpecialties()).isSameAs(vet.getSpecialties());
+
+        vet.addSpecialty(specialty("radiology"));
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName)
+            .containsExactly("Dentistry", "radiology", "surgery");
+    }
+
+    @Test
+    void sortsTheSpecialtiesAgainWhenOneIsRenamed() {
+        Specialty surgery = specialty("surgery");
+        vet.addSpecialty(surgery);
+        vet.addSpecialty(specialty("radiology"));
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("radiology", "surgery");
+
+        surgery.setName("anesthesia");
+
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("anesthesia", "radiology");
+    }
+
+    private static Specialty specialty(String name) {
+        Specialty specialty = new Specialty();
+        specialty.setName(name);
+        return specialty;
+    }
+}
@@ -17,13 +17,21 @@ package org.springframework.samples.petclinic.visits;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.commons.metrics.VirtualThreadPinningMetrics;
 
 /**
+ * The R2DBC auto-configuration is left out: its connection factory would make the JPA data source back off.
+ * The reactive profile builds its own, see {@code ReactiveConfig}.
+ *
  * @author Maciej Szarlinski
  */
 @EnableDiscoveryClient
-@SpringBootApplication
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@Import(VirtualThreadPinningMetrics.class)
 public class VisitsServiceApplication {
 
     public static void main(String[] args) {
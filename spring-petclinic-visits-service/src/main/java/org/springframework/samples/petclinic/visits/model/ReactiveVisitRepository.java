@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read methods of {@link VisitRepository}, used by the {@code reactive} profile.
+ * Runs the same queries over R2DBC and emits the visits as the rows arrive.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveVisitRepository {
+
+    private static final String SELECT_VISITS = "SELECT id, pet_id, visit_date, description, version FROM visits";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveVisitRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Visit> findByPetId(int petId) {
+        return databaseClient.sql(SELECT_VISITS + " WHERE pet_id = :petId")
+            .bind("petId", petId)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    /**
+     * Same stamp as {@link VisitRepository#findVersionStampByPetId(int)}.
+     */
+    public Mono<String> findVersionStampByPetId(int petId) {
+        return databaseClient.sql("""
+                SELECT COUNT(*) AS visits, COALESCE(MAX(id), 0) AS max_id, COALESCE(SUM(version), 0) AS versions
+                FROM visits WHERE pet_id = :petId""")
+            .bind("petId", petId)
+            .map(row -> longValue(row, "visits") + "." + longValue(row, "max_id") + "." + longValue(row, "versions"))
+            .one();
+    }
+
+    /**
+     * Same as {@link VisitRepository#findLatestByPetId}: visits of a pet between two dates, both inclusive and
+     * each optional, newest first.
+     */
+    public Flux<Visit> findLatestByPetId(int petId, LocalDate from, LocalDate to, int limit) {
+        String sql = SELECT_VISITS + " WHERE pet_id = :petId"
+            + (from != null ? " AND visit_date >= :from" : "")
+            + (to != null ? " AND visit_date <= :to" : "")
+            + " ORDER BY visit_date DESC, id DESC LIMIT :limit";
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(sql)
+            .bind("petId", petId)
+            .bind("limit", limit);
+        if (from != null) {
+            query = query.bind("from", from);
+        }
+        if (to != null) {
+            query = query.bind("to", to);
+        }
+        return query.map(ReactiveVisitRepository::toVisit).all();
+    }
+
+    public Flux<Visit> findByPetIdIn(Collection<Integer> petIds) {
+        if (petIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(SELECT_VISITS + " WHERE pet_id IN (:petIds)")
+            .bind("petIds", petIds)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    /**
+     * Same as {@link VisitRepository#findByPetIdInChunks(int[])}: the chunks are queried one after the other.
+     */
+    public Flux<Visit> findByPetIdInChunks(int[] petIds) {
+        int[] distinctIds = Arrays.stream(petIds).distinct().toArray();
+        int chunkSize = VisitRepository.IN_CLAUSE_CHUNK_SIZE;
+        return Flux.range(0, (distinctIds.length + chunkSize - 1) / chunkSize)
+            .map(chunk -> chunk * chunkSize)
+            .concatMap(from -> findByPetIdIn(Arrays.stream(distinctIds, from,
+                Math.min(from + chunkSize, distinctIds.length)).boxed().toList()));
+    }
+
+    private static Visit toVisit(Readable row) {
+        LocalDate date = row.get("visit_date", LocalDate.class);
+        return Visit.VisitBuilder.aVisit()
+            .id((int) longValue(row, "id"))
+            .petId((int) longValue(row, "pet_id"))
+            .date(date != null ? java.sql.Date.valueOf(date) : null)
+            .description(row.get("description", String.class))
+            .version((int) longValue(row, "version"))
+            .build();
+    }
+
+    // Integer columns come back as Integer or Long, and sums as BigDecimal, depending on the driver
+    private static long longValue(Readable row, String name) {
+        return ((Number) row.get(name)).longValue();
+    }
+}
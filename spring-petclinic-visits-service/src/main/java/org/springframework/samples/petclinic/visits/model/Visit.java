@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.visits.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 
@@ -48,6 +49,10 @@ public class Visit {
     @Column(name = "pet_id")
     private int petId;
 
+    @Version
+    @JsonIgnore
+    private Integer version;
+
     public Integer getId() {
         return this.id;
     }
@@ -64,6 +69,10 @@ public class Visit {
         return this.petId;
     }
 
+    public Integer getVersion() {
+        return this.version;
+    }
+
     public void setId(Integer id) {
         this.id = id;
     }
@@ -86,6 +95,7 @@ public class Visit {
         private Date date;
         private @Size(max = 8192) String description;
         private int petId;
+        private Integer version;
 
         private VisitBuilder() {
         }
@@ -114,12 +124,18 @@ public class Visit {
             return this;
         }
 
+        public VisitBuilder version(Integer version) {
+            this.version = version;
+            return this;
+        }
+
         public Visit build() {
             Visit visit = new Visit();
             visit.setId(id);
             visit.setDate(date);
             visit.setDescription(description);
             visit.setPetId(petId);
+            visit.version = version;
             return visit;
         }
     }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.model;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inserts new {@link Visit}s with a single JDBC batch, bypassing the persistence context, which
+ * cannot batch inserts into the {@code IDENTITY} id column.
+ */
+@Repository
+public class VisitBatchInserter {
+
+    private static final String INSERT_VISIT = """
+        INSERT INTO visits (pet_id, visit_date, description, version) VALUES (?, ?, ?, 0)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VisitBatchInserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the given visits in a single transaction.
+     * @param visits new visits, never persisted
+     */
+    @Transactional
+    public void insertAll(List<Visit> visits) {
+        if (visits.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_VISIT, visits, visits.size(), (ps, visit) -> {
+            ps.setInt(1, visit.getPetId());
+            ps.setDate(2, new java.sql.Date(visit.getDate().getTime()));
+            ps.setString(3, visit.getDescription());
+        });
+    }
+}
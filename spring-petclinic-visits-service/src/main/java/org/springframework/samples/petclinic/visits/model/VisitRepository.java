@@ -15,10 +15,16 @@
  */
 package org.springframework.samples.petclinic.visits.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository class for <code>Visit</code> domain objects All method names are compliant with Spring Data naming conventions so this interface can easily be extended for Spring
@@ -34,5 +40,73 @@ public interface VisitRepository extends JpaRepository<Visit, Integer> {
 
     List<Visit> findByPetId(int petId);
 
+    /**
+     * Stamp of the visits of a pet, computed from the {@code (pet_id, visit_date)} index and the version
+     * columns without loading the visits: it changes whenever a visit of the pet is created or updated.
+     */
+    @Query("""
+        SELECT CONCAT(str(COUNT(visit)), '.', str(COALESCE(MAX(visit.id), 0)), '.', str(COALESCE(SUM(visit.version), 0)))
+        FROM Visit visit WHERE visit.petId = :petId""")
+    String findVersionStampByPetId(@Param("petId") int petId);
+
+    /**
+     * Same as {@link #findVersionStampByPetId(int)}, for the visits of several pets.
+     */
+    @Query("""
+        SELECT CONCAT(str(COUNT(visit)), '.', str(COALESCE(MAX(visit.id), 0)), '.', str(COALESCE(SUM(visit.version), 0)))
+        FROM Visit visit WHERE visit.petId IN :petIds""")
+    String findVersionStampByPetIdIn(@Param("petIds") Collection<Integer> petIds);
+
+    /**
+     * Visits of a pet between two dates, both inclusive, newest first. A {@code null} date leaves that side
+     * of the range open, so that visits without a date are only left out when a bound is given. Served by
+     * the {@code (pet_id, visit_date)} index.
+     */
+    default List<Visit> findLatestByPetId(int petId, Date from, Date to, Limit limit) {
+        if (from != null && to != null) {
+            return findByPetIdAndDateBetweenOrderByDateDescIdDesc(petId, from, to, limit);
+        }
+        if (from != null) {
+            return findByPetIdAndDateGreaterThanEqualOrderByDateDescIdDesc(petId, from, limit);
+        }
+        if (to != null) {
+            return findByPetIdAndDateLessThanEqualOrderByDateDescIdDesc(petId, to, limit);
+        }
+        return findByPetIdOrderByDateDescIdDesc(petId, limit);
+    }
+
+    List<Visit> findByPetIdAndDateBetweenOrderByDateDescIdDesc(int petId, Date from, Date to, Limit limit);
+
+    List<Visit> findByPetIdAndDateGreaterThanEqualOrderByDateDescIdDesc(int petId, Date from, Limit limit);
+
+    List<Visit> findByPetIdAndDateLessThanEqualOrderByDateDescIdDesc(int petId, Date to, Limit limit);
+
+    List<Visit> findByPetIdOrderByDateDescIdDesc(int petId, Limit limit);
+
+    /**
+     * Largest number of pet ids bound to a single IN clause by {@link #findByPetIdInChunks(int[])}.
+     */
+    int IN_CLAUSE_CHUNK_SIZE = 500;
+
     List<Visit> findByPetIdIn(Collection<Integer> petIds);
+
+    /**
+     * Same as {@link #findByPetIdIn(Collection)}, but for an arbitrary number of pet ids: duplicates
+     * are dropped and the remaining ids are queried in chunks of {@link #IN_CLAUSE_CHUNK_SIZE}.
+     */
+    default List<Visit> findByPetIdInChunks(int[] petIds) {
+        int[] distinctIds = Arrays.stream(petIds).distinct().toArray();
+        if (distinctIds.length == 0) {
+            return List.of();
+        }
+        if (distinctIds.length <= IN_CLAUSE_CHUNK_SIZE) {
+            return findByPetIdIn(Arrays.stream(distinctIds).boxed().toList());
+        }
+        List<Visit> visits = new ArrayList<>();
+        for (int from = 0; from < distinctIds.length; from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.length);
+            visits.addAll(findByPetIdIn(Arrays.stream(distinctIds, from, to).boxed().toList()));
+        }
+        return visits;
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.commons.http.VarintIds;
+import org.springframework.samples.petclinic.visits.model.ReactiveVisitRepository;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Reads of {@link VisitResource} served on WebFlux from {@link ReactiveVisitRepository} by the {@code reactive}
+ * profile: no thread is held while the database answers. Router functions take precedence over the annotated
+ * mappings, so the writes keep going through {@link VisitResource}.
+ * <p>
+ * Paths, parameters, bodies and ETags are the same as the servlet endpoints. The only difference is that
+ * a conditional read of all the visits of a pet is answered after loading them, rather than from the
+ * version stamp alone.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+class ReactiveVisitRoutes {
+
+    private static final long MAX_VARINT_BODY_BYTES = (long) VisitResource.MAX_QUERY_PET_IDS * VarintIds.MAX_BYTES_PER_ID;
+
+    private final ReactiveVisitRepository visitRepository;
+
+    ReactiveVisitRoutes(ReactiveVisitRepository visitRepository) {
+        this.visitRepository = visitRepository;
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> visitReadRoutes() {
+        return route()
+            .GET("/owners/*/pets/{petId}/visits", this::read)
+            .GET("/pets/visits", this::readAll)
+            .POST("/pets/visits/query", contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE),
+                request -> query(varintBody(request)))
+            .POST("/pets/visits/query", request -> Mono.error(new UnsupportedMediaTypeStatusException(
+                request.headers().contentType().orElse(null), List.of(VarintIdsHttpMessageConverter.MEDIA_TYPE))))
+            .build();
+    }
+
+    Mono<ServerResponse> read(ServerRequest request) {
+        int petId = intValue(request.pathVariable("petId"), "petId");
+        if (petId < 1) {
+            throw new ServerWebInputException("petId must be greater than or equal to 1");
+        }
+        Optional<LocalDate> from = request.queryParam("from").map(value -> date(value, "from"));
+        Optional<LocalDate> to = request.queryParam("to").map(value -> date(value, "to"));
+        Optional<Integer> limit = request.queryParam("limit").map(value -> intValue(value, "limit"));
+        if (from.isEmpty() && to.isEmpty() && limit.isEmpty()) {
+            return visitRepository.findByPetId(petId).collectList()
+                .flatMap(visits -> conditionalResponse(request, VersionStamps.of(visits), visits));
+        }
+        return visitRepository.findVersionStampByPetId(petId)
+            .flatMap(versionStamp -> request.checkNotModified(versionStamp)
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(versionStamp).body(
+                    visitRepository.findLatestByPetId(petId,
+                        from.orElse(null),
+                        to.orElse(null),
+                        Math.max(1, Math.min(limit.orElse(VisitResource.MAX_VISITS_LIMIT), VisitResource.MAX_VISITS_LIMIT))),
+                    Visit.class))));
+    }
+
+    Mono<ServerResponse> readAll(ServerRequest request) {
+        List<Integer> petIds = request.queryParams().getOrDefault("petId", List.of()).stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(value -> intValue(value.trim(), "petId"))
+            .toList();
+        if (petIds.isEmpty()) {
+            throw new ServerWebInputException("Required parameter 'petId' is not present");
+        }
+        return visitRepository.findByPetIdIn(petIds).collectList()
+            .flatMap(visits -> conditionalResponse(request, VersionStamps.of(visits), new VisitResource.Visits(visits)));
+    }
+
+    private Mono<ServerResponse> query(Mono<int[]> body) {
+        return body
+            .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Required request body is missing")))
+            .flatMap(petIds -> {
+                if (petIds.length > VisitResource.MAX_QUERY_PET_IDS) {
+                    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "At most " + VisitResource.MAX_QUERY_PET_IDS + " pet ids can be queried at once"));
+                }
+                return visitRepository.findByPetIdInChunks(petIds).collectList()
+                    .flatMap(visits -> ServerResponse.ok().bodyValue(new VisitResource.Visits(visits)));
+            });
+    }
+
+    private static Mono<ServerResponse> conditionalResponse(ServerRequest request, String versionStamp, Object body) {
+        return request.checkNotModified(versionStamp)
+            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(versionStamp).bodyValue(body)));
+    }
+
+    /**
+     * Decodes the varint ids of the request body, reading no further than {@link VisitResource#MAX_QUERY_PET_IDS}
+     * ids can take.
+     */
+    private static Mono<int[]> varintBody(ServerRequest request) {
+        Flux<DataBuffer> body = request.body(BodyExtractors.toDataBuffers());
+        return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(body, MAX_VARINT_BODY_BYTES + 1))
+            .map(buffer -> {
+                try (InputStream inputStream = buffer.asInputStream(true)) {
+                    return VarintIds.decode(inputStream, VisitResource.MAX_QUERY_PET_IDS);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } catch (IllegalArgumentException ex) {
+                    throw new ServerWebInputException(ex.getMessage());
+                }
+            });
+    }
+
+    private static int intValue(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new ServerWebInputException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static LocalDate date(String value, String name) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new ServerWebInputException("Invalid " + name + ": " + value);
+        }
+    }
+}
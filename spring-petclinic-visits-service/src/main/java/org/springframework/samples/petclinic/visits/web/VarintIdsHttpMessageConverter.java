@@ -0,0 +1,46 @@
+package org.springframework.samples.petclinic.visits.web;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.samples.petclinic.commons.http.VarintIds;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes an {@code int[]} of IDs in the {@link VarintIds} format. A body of more than
+ * {@link VisitResource#MAX_QUERY_PET_IDS} IDs is rejected without being read whole.
+ */
+@Component
+class VarintIdsHttpMessageConverter extends AbstractHttpMessageConverter<int[]> {
+
+    static final String MEDIA_TYPE_VALUE = VarintIds.MEDIA_TYPE_VALUE;
+
+    static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    VarintIdsHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return int[].class == clazz;
+    }
+
+    @Override
+    protected int[] readInternal(Class<? extends int[]> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return VarintIds.decode(inputMessage.getBody(), VisitResource.MAX_QUERY_PET_IDS);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException(ex.getMessage(), inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(int[] ids, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(VarintIds.encode(ids));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.samples.petclinic.visits.model.VisitRepository;
+
+import java.util.List;
+
+/**
+ * Strong ETag values built from the version columns of the visits making up a response.
+ */
+final class VersionStamps {
+
+    private VersionStamps() {
+    }
+
+    /**
+     * Same stamp as {@link VisitRepository#findVersionStampByPetId(int)}, computed from loaded visits.
+     */
+    static String of(List<Visit> visits) {
+        int maxId = 0;
+        long versions = 0;
+        for (Visit visit : visits) {
+            maxId = Math.max(maxId, visit.getId() != null ? visit.getId() : 0);
+            versions += visit.getVersion() != null ? visit.getVersion() : 0;
+        }
+        return visits.size() + "." + maxId + "." + versions;
+    }
+}
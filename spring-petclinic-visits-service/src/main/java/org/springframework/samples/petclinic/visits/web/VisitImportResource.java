@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.samples.petclinic.visits.model.VisitBatchInserter;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk ingestion of visits, one JSON visit per line, as synced by the front-desk systems at the end of the day:
+ * <pre>
+ * {"petId":7,"date":"2013-01-01","description":"rabies shot"}
+ * </pre>
+ * The body is parsed as it is read and the valid visits are written in JDBC batches of
+ * {@code petclinic.visits.import.batch-size}. The next lines are only read once the current batch has been
+ * written, so the upload is consumed at the pace of the database and memory holds a single batch whatever
+ * the size of the upload. Invalid rows, and rows the database rejects, are reported with their line number
+ * and skipped.
+ * <p>
+ * Reading the body as a blocking stream needs the servlet stack, so the endpoint is not available with the
+ * {@code reactive} profile.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Timed("petclinic.visit")
+class VisitImportResource {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(VisitImportResource.class);
+
+    private final VisitBatchInserter visitBatchInserter;
+    private final Validator validator;
+    private final ObjectReader visitReader;
+    private final int batchSize;
+
+    VisitImportResource(VisitBatchInserter visitBatchInserter, Validator validator, ObjectMapper objectMapper,
+                        @Value("${petclinic.visits.import.batch-size:1000}") int batchSize) {
+        this.visitBatchInserter = visitBatchInserter;
+        this.validator = validator;
+        this.visitReader = objectMapper.readerFor(Visit.class);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostMapping(value = "pets/visits/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public VisitImportResult importVisits(InputStream body) throws IOException {
+        Progress progress = new Progress();
+        List<Visit> batch = new ArrayList<>(batchSize);
+        List<Integer> batchLines = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(toVisit(visitReader.readValue(line)));
+                batchLines.add(lineNumber);
+            } catch (JsonProcessingException ex) {
+                progress.reject(lineNumber, ex.getOriginalMessage());
+            } catch (IllegalArgumentException ex) {
+                progress.reject(lineNumber, ex.getMessage());
+            }
+            if (batch.size() == batchSize) {
+                write(batch, batchLines, progress);
+            }
+        }
+        write(batch, batchLines, progress);
+        log.info("Imported {} visits, rejected {} rows", progress.imported, progress.rejected);
+        return new VisitImportResult(progress.imported, progress.rejected, progress.errors);
+    }
+
+    /**
+     * Write a batch, then clear it. When the database rejects the batch, its rows are written one by one
+     * so that only the faulty ones are reported.
+     */
+    private void write(List<Visit> batch, List<Integer> batchLines, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            visitBatchInserter.insertAll(batch);
+            progress.imported += batch.size();
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} visits rejected, retrying row by row", batch.size(), batchFailure);
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    visitBatchInserter.insertAll(List.of(batch.get(i)));
+                    progress.imported++;
+                } catch (DataAccessException ex) {
+                    progress.reject(batchLines.get(i), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private Visit toVisit(Visit visit) {
+        if (visit.getPetId() < 1) {
+            throw new IllegalArgumentException("petId must be greater than or equal to 1");
+        }
+        if (visit.getDate() == null) {
+            throw new IllegalArgumentException("date must not be null");
+        }
+        Set<ConstraintViolation<Visit>> violations = validator.validate(visit);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        }
+        return visit;
+    }
+
+    private static final class Progress {
+
+        private int imported;
+        private int rejected;
+        private final List<VisitImportResult.RowError> errors = new ArrayList<>();
+
+        void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new VisitImportResult.RowError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.util.List;
+
+/**
+ * Outcome of a visit import: the number of visits written, and the rows that were rejected.
+ * At most {@link VisitImportResource#MAX_REPORTED_ERRORS} errors are listed, while {@code rejected}
+ * counts them all.
+ */
+record VisitImportResult(
+    int imported,
+    int rejected,
+    List<RowError> errors
+) {
+
+    /**
+     * @param line    line number in the imported document, starting at 1
+     * @param message why the row was rejected
+     */
+    record RowError(
+        int line,
+        String message
+    ) {
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.springframework.samples.petclinic.visits.web;
 
+import java.time.LocalDate;
 import java.util.List;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -22,6 +23,9 @@ import jakarta.validation.constraints.Min;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.samples.petclinic.visits.model.Visit;
 import org.springframework.samples.petclinic.visits.model.VisitRepository;
@@ -32,6 +36,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * @author Juergen Hoeller
@@ -45,6 +51,10 @@ import org.springframework.web.bind.annotation.RestController;
 @Timed("petclinic.visit")
 class VisitResource {
 
+    static final int MAX_QUERY_PET_IDS = 10_000;
+
+    static final int MAX_VISITS_LIMIT = 1000;
+
     private static final Logger log = LoggerFactory.getLogger(VisitResource.class);
 
     private final VisitRepository visitRepository;
@@ -64,15 +74,65 @@ class VisitResource {
         return visitRepository.save(visit);
     }
 
+    /**
+     * Visits of a pet. With any of {@code from}, {@code to} (both inclusive) or {@code limit}, only the
+     * matching visits are returned, newest first: {@code ?limit=5} gives the last five visits and
+     * {@code ?from=2013-01-01&to=2013-01-01} the visits of a single day. Visits without a date are only
+     * returned when neither {@code from} nor {@code to} is given.
+     * <p>
+     * The ETag is the version stamp of all the visits of the pet. A conditional request whose ETag is still
+     * current gets a 304 answered from that stamp only, without loading the visits.
+     */
     @GetMapping("owners/*/pets/{petId}/visits")
-    public List<Visit> read(@PathVariable("petId") @Min(1) int petId) {
-        return visitRepository.findByPetId(petId);
+    public List<Visit> read(
+        @PathVariable("petId") @Min(1) int petId,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(name = "limit", required = false) Integer limit,
+        WebRequest request) {
+
+        boolean filtered = from != null || to != null || limit != null;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || filtered) {
+            String versionStamp = visitRepository.findVersionStampByPetId(petId);
+            if (versionStamp != null && request.checkNotModified(versionStamp)) {
+                return null;
+            }
+        }
+        if (!filtered) {
+            List<Visit> visits = visitRepository.findByPetId(petId);
+            return request.checkNotModified(VersionStamps.of(visits)) ? null : visits;
+        }
+        return visitRepository.findLatestByPetId(
+            petId,
+            from != null ? java.sql.Date.valueOf(from) : null,
+            to != null ? java.sql.Date.valueOf(to) : null,
+            Limit.of(limit != null ? Math.max(1, Math.min(limit, MAX_VISITS_LIMIT)) : MAX_VISITS_LIMIT));
     }
 
     @GetMapping("pets/visits")
-    public Visits read(@RequestParam("petId") List<Integer> petIds) {
+    public Visits read(@RequestParam("petId") List<Integer> petIds, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String versionStamp = visitRepository.findVersionStampByPetIdIn(petIds);
+            if (versionStamp != null && request.checkNotModified(versionStamp)) {
+                return null;
+            }
+        }
         final List<Visit> byPetIdIn = visitRepository.findByPetIdIn(petIds);
-        return new Visits(byPetIdIn);
+        return request.checkNotModified(VersionStamps.of(byPetIdIn)) ? null : new Visits(byPetIdIn);
+    }
+
+    /**
+     * Bulk variant of {@link #read(List, WebRequest)} taking the pet ids in the request body, packed as varints,
+     * so that the number of ids is not bound by the URL length. The body is read no further than
+     * {@link #MAX_QUERY_PET_IDS} ids can take.
+     */
+    @PostMapping(value = "pets/visits/query", consumes = VarintIdsHttpMessageConverter.MEDIA_TYPE_VALUE)
+    public Visits query(@RequestBody int[] petIds) {
+        if (petIds.length > MAX_QUERY_PET_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + MAX_QUERY_PET_IDS + " pet ids can be queried at once");
+        }
+        return new Visits(visitRepository.findByPetIdInChunks(petIds));
     }
 
     record Visits(
@@ -0,0 +1,11 @@
+DROP TABLE IF EXISTS visits;
+
+CREATE TABLE visits (
+  id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  pet_id      INTEGER NOT NULL,
+  visit_date  DATE,
+  description VARCHAR(8192),
+  version     INTEGER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date);
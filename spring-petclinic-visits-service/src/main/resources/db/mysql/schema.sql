@@ -8,5 +8,23 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED NOT NULL,
   visit_date DATE,
   description VARCHAR(8192),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
+  INDEX visits_pet_id_visit_date (pet_id, visit_date),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+
+-- Databases created before the (pet_id, visit_date) index: MySQL has no CREATE INDEX IF NOT EXISTS
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'visits' AND index_name = 'visits_pet_id_visit_date') = 0,
+  'CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Databases created before the version column
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'visits' AND column_name = 'version') = 0,
+  'ALTER TABLE visits ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
@@ -0,0 +1,132 @@
+package org.springframework.samples.petclinic.visits.model;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against an in-memory H2 database loaded with the sample visits. To run it against MySQL instead,
+ * point it at an already initialized database:
+ * {@code -Dpetclinic.test.r2dbc-url=r2dbc:mysql://pc:pc@localhost:3306/petclinic}.
+ * <p>
+ * The sample visits of both databases have different dates, so the date queries run on visits of their
+ * own pet, inserted before the tests and deleted after them.
+ */
+class ReactiveVisitRepositoryTest {
+
+    private static final String R2DBC_URL =
+        System.getProperty("petclinic.test.r2dbc-url", "r2dbc:h2:mem:///visits-test;DB_CLOSE_DELAY=-1");
+
+    private static final int DATED_PET_ID = 2000;
+
+    private static DatabaseClient databaseClient;
+
+    private static ReactiveVisitRepository visitRepository;
+
+    @BeforeAll
+    static void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(R2DBC_URL);
+        if (R2DBC_URL.startsWith("r2dbc:h2:")) {
+            new ResourceDatabasePopulator(
+                new ClassPathResource("db/h2/schema.sql"),
+                new ClassPathResource("db/h2/data.sql")
+            ).populate(connectionFactory).block();
+        }
+        databaseClient = DatabaseClient.create(connectionFactory);
+        visitRepository = new ReactiveVisitRepository(databaseClient);
+
+        deleteDatedVisits();
+        insertDatedVisit(LocalDate.of(2020, 1, 1), "first");
+        insertDatedVisit(LocalDate.of(2020, 1, 2), "second");
+        insertDatedVisit(LocalDate.of(2020, 1, 3), "third");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        deleteDatedVisits();
+    }
+
+    @Test
+    void shouldFindVisitsOfPet() {
+        List<Visit> visits = visitRepository.findByPetId(7).collectList().block();
+
+        assertThat(visits).extracting(Visit::getId).containsExactlyInAnyOrder(1, 4);
+        assertThat(visits).extracting(Visit::getPetId).containsOnly(7);
+        assertThat(visits).allSatisfy(visit -> {
+            assertThat(visit.getDate()).isNotNull();
+            assertThat(visit.getDescription()).isNotBlank();
+            assertThat(visit.getVersion()).isZero();
+        });
+    }
+
+    @Test
+    void shouldFindVisitsOfSeveralPets() {
+        List<Visit> visits = visitRepository.findByPetIdIn(List.of(7, 8)).collectList().block();
+
+        assertThat(visits).extracting(Visit::getId).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    void shouldQueryPetIdsInChunks() {
+        int[] petIds = IntStream.concat(IntStream.of(8, 8), IntStream.rangeClosed(1, 1200)).toArray();
+
+        List<Visit> visits = visitRepository.findByPetIdInChunks(petIds).collectList().block();
+
+        assertThat(visits).extracting(Visit::getId).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    void shouldFindLastVisitsOfPetInDateRange() {
+        List<Visit> visits = visitRepository
+            .findLatestByPetId(DATED_PET_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), 5)
+            .collectList().block();
+
+        assertThat(visits).extracting(Visit::getDescription).containsExactly("second", "first");
+    }
+
+    @Test
+    void shouldFindLastVisitsOfPetWithOpenDateBounds() {
+        assertThat(visitRepository.findLatestByPetId(DATED_PET_ID, null, null, 1).collectList().block())
+            .extracting(Visit::getDescription).containsExactly("third");
+        assertThat(visitRepository.findLatestByPetId(DATED_PET_ID, LocalDate.of(2020, 1, 2), null, 5)
+            .collectList().block())
+            .extracting(Visit::getDescription).containsExactly("third", "second");
+        assertThat(visitRepository.findLatestByPetId(DATED_PET_ID, null, LocalDate.of(2020, 1, 2), 5)
+            .collectList().block())
+            .extracting(Visit::getDescription).containsExactly("second", "first");
+    }
+
+    @Test
+    void shouldStampVisitsOfPetLikeTheLoadedVisits() {
+        String versionStamp = visitRepository.findVersionStampByPetId(7).block();
+
+        assertThat(versionStamp).isEqualTo("2.4.0");
+    }
+
+    private static void insertDatedVisit(LocalDate date, String description) {
+        databaseClient.sql("INSERT INTO visits (pet_id, visit_date, description) VALUES (:petId, :date, :description)")
+            .bind("petId", DATED_PET_ID)
+            .bind("date", date)
+            .bind("description", description)
+            .then()
+            .block();
+    }
+
+    private static void deleteDatedVisits() {
+        databaseClient.sql("DELETE FROM visits WHERE pet_id = :petId")
+            .bind("petId", DATED_PET_ID)
+            .then()
+            .block();
+    }
+}
@@ -0,0 +1,128 @@
+package org.springframework.samples.petclinic.visits.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.ReactiveVisitRepository;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+class ReactiveVisitRoutesTest {
+
+    private ReactiveVisitRepository visitRepository;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        visitRepository = mock(ReactiveVisitRepository.class);
+        client = WebTestClient.bindToRouterFunction(new ReactiveVisitRoutes(visitRepository).visitReadRoutes()).build();
+    }
+
+    @Test
+    void shouldFetchVisits() {
+        given(visitRepository.findByPetIdIn(List.of(111, 222)))
+            .willReturn(Flux.just(visit(1, 111), visit(2, 222), visit(3, 222)));
+
+        client.get().uri("/pets/visits?petId=111,222")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"3.3.0\"")
+            .expectBody()
+            .jsonPath("$.items[0].id").isEqualTo(1)
+            .jsonPath("$.items[2].petId").isEqualTo(222);
+    }
+
+    @Test
+    void shouldTagVisitsOfPetWithVersionStamp() {
+        given(visitRepository.findByPetId(7)).willReturn(Flux.just(visit(1, 7), visit(4, 7)));
+
+        client.get().uri("/owners/6/pets/7/visits")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"2.4.0\"")
+            .expectBody()
+            .jsonPath("$[1].id").isEqualTo(4);
+
+        client.get().uri("/owners/6/pets/7/visits")
+            .header("If-None-Match", "\"2.4.0\"")
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    void shouldNotLoadFilteredVisitsWhenVersionStampIsUnchanged() {
+        given(visitRepository.findVersionStampByPetId(7)).willReturn(Mono.just("2.4.0"));
+
+        client.get().uri("/owners/6/pets/7/visits?limit=1")
+            .header("If-None-Match", "\"2.4.0\"")
+            .exchange()
+            .expectStatus().isNotModified();
+
+        then(visitRepository).should(never()).findLatestByPetId(anyInt(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldFetchLastVisitsOfPetInDateRange() {
+        given(visitRepository.findVersionStampByPetId(7)).willReturn(Mono.just("2.4.0"));
+        given(visitRepository.findLatestByPetId(7, LocalDate.of(2013, 1, 1), LocalDate.of(2013, 12, 31), 2))
+            .willReturn(Flux.just(visit(4, 7), visit(1, 7)));
+
+        client.get().uri("/owners/6/pets/7/visits?from=2013-01-01&to=2013-12-31&limit=2")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].id").isEqualTo(4)
+            .jsonPath("$[1].id").isEqualTo(1);
+    }
+
+    @Test
+    void shouldQueryVisitsWithVarintPetIds() {
+        given(visitRepository.findByPetIdInChunks(any())).willReturn(Flux.just(visit(1, 111), visit(2, 222)));
+
+        client.post().uri("/pets/visits/query")
+            .contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE)
+            .bodyValue(new byte[]{111, (byte) 0xDE, 0x01})
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items[1].petId").isEqualTo(222);
+
+        then(visitRepository).should().findByPetIdInChunks(new int[]{111, 222});
+    }
+
+    @Test
+    void shouldRejectJsonPetIds() {
+        client.post().uri("/pets/visits/query")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("[111]")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @Test
+    void shouldRejectMalformedVarintPetIds() {
+        client.post().uri("/pets/visits/query")
+            .contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE)
+            .bodyValue(new byte[]{(byte) 0xDE})
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    private static Visit visit(int id, int petId) {
+        return Visit.VisitBuilder.aVisit().id(id).petId(petId).version(0).build();
+    }
+}
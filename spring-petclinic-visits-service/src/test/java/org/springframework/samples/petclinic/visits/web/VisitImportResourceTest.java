@@ -0,0 +1,88 @@
+package org.springframework.samples.petclinic.visits.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.samples.petclinic.visits.model.VisitBatchInserter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = VisitImportResource.class, properties = "petclinic.visits.import.batch-size=2")
+@ActiveProfiles("test")
+class VisitImportResourceTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    VisitBatchInserter visitBatchInserter;
+
+    @Test
+    void shouldImportVisitsInBatchesAndReportInvalidRows() throws Exception {
+        String body = """
+            {"petId":7,"date":"2013-01-01","description":"rabies shot"}
+            {"petId":0,"date":"2013-01-02","description":"rabies shot"}
+            {"petId":8,"date":"2013-01-03","description":"neutered"}
+
+            {"petId":8,"date":"not a date"}
+            {"petId":6,"date":"2013-01-04","description":"spayed"}
+            """;
+
+        // The resource clears and reuses its batch list once written: keep a copy of each batch
+        List<List<Visit>> batches = new ArrayList<>();
+        willAnswer(invocation -> batches.add(List.copyOf(invocation.<List<Visit>>getArgument(0))))
+            .given(visitBatchInserter).insertAll(anyList());
+
+        mvc.perform(post("/pets/visits/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(3))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[0].message").value("petId must be greater than or equal to 1"))
+            .andExpect(jsonPath("$.errors[1].line").value(5));
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting(Visit::getPetId).containsExactly(7, 8);
+        assertThat(batches.get(1)).extracting(Visit::getPetId).containsExactly(6);
+    }
+
+    @Test
+    void shouldRetryRejectedBatchRowByRow() throws Exception {
+        String body = """
+            {"petId":7,"date":"2013-01-01","description":"rabies shot"}
+            {"petId":999,"date":"2013-01-02","description":"rabies shot"}
+            """;
+        willThrow(new DataIntegrityViolationException("batch"))
+            .given(visitBatchInserter).insertAll(argThat(visits -> visits != null && visits.size() == 2));
+        willThrow(new DataIntegrityViolationException("unknown pet 999"))
+            .given(visitBatchInserter).insertAll(argThat(visits ->
+                visits != null && visits.size() == 1 && visits.get(0).getPetId() == 999));
+
+        mvc.perform(post("/pets/visits/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[0].message").value("unknown pet 999"));
+
+        verify(visitBatchInserter, times(3)).insertAll(anyList());
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.visits.model.Visit;
 import org.springframework.samples.petclinic.visits.model.VisitRepository;
 import org.springframework.test.context.ActiveProfiles;
@@ -12,9 +14,17 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 
+import java.sql.Date;
+import java.util.List;
+
 import static java.util.Arrays.asList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,4 +67,124 @@ class VisitResourceTest {
             .andExpect(jsonPath("$.items[1].petId").value(222))
             .andExpect(jsonPath("$.items[2].petId").value(222));
     }
+
+    @Test
+    void shouldTagVisitsOfPetWithVersionStamp() throws Exception {
+        given(visitRepository.findByPetId(7))
+            .willReturn(
+                asList(
+                    Visit.VisitBuilder.aVisit()
+                        .id(1)
+                        .petId(7)
+                        .build(),
+                    Visit.VisitBuilder.aVisit()
+                        .id(4)
+                        .petId(7)
+                        .build()
+                )
+            );
+
+        mvc.perform(get("/owners/6/pets/7/visits"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"2.4.0\""));
+    }
+
+    @Test
+    void shouldNotLoadVisitsOfPetWhenVersionStampIsUnchanged() throws Exception {
+        given(visitRepository.findVersionStampByPetId(7)).willReturn("2.4.0");
+
+        mvc.perform(get("/owners/6/pets/7/visits").header("If-None-Match", "\"2.4.0\""))
+            .andExpect(status().isNotModified());
+
+        then(visitRepository).should(never()).findByPetId(7);
+    }
+
+    @Test
+    void shouldFetchLastVisitsOfPetInDateRange() throws Exception {
+        given(visitRepository.findLatestByPetId(
+            7, Date.valueOf("2013-01-01"), Date.valueOf("2013-12-31"), Limit.of(2)))
+            .willReturn(
+                asList(
+                    Visit.VisitBuilder.aVisit()
+                        .id(4)
+                        .petId(7)
+                        .date(Date.valueOf("2013-06-04"))
+                        .build(),
+                    Visit.VisitBuilder.aVisit()
+                        .id(1)
+                        .petId(7)
+                        .date(Date.valueOf("2013-01-01"))
+                        .build()
+                )
+            );
+
+        mvc.perform(get("/owners/6/pets/7/visits?from=2013-01-01&to=2013-12-31&limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(4))
+            .andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    @Test
+    void shouldFetchLastVisitsOfPetWithoutDateBounds() throws Exception {
+        given(visitRepository.findLatestByPetId(7, null, null, Limit.of(1)))
+            .willReturn(List.of(Visit.VisitBuilder.aVisit().id(4).petId(7).build()));
+
+        mvc.perform(get("/owners/6/pets/7/visits?limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(4));
+    }
+
+    @Test
+    void shouldRejectJsonPetIds() throws Exception {
+        mvc.perform(post("/pets/visits/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[111,222,111]"))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void shouldQueryVisitsWithVarintPetIds() throws Exception {
+        givenVisitsOfPets111And222();
+
+        // 111 fits in one byte, 222 needs two: 0xDE 0x01
+        mvc.perform(post("/pets/visits/query")
+                .contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE)
+                .content(new byte[]{111, (byte) 0xDE, 0x01}))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].petId").value(111))
+            .andExpect(jsonPath("$.items[1].petId").value(222));
+    }
+
+    @Test
+    void shouldRejectMalformedVarintPetIds() throws Exception {
+        mvc.perform(post("/pets/visits/query")
+                .contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE)
+                .content(new byte[]{(byte) 0xDE}))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectMoreVarintPetIdsThanTheMaximum() throws Exception {
+        mvc.perform(post("/pets/visits/query")
+                .contentType(VarintIdsHttpMessageConverter.MEDIA_TYPE)
+                .content(new byte[VisitResource.MAX_QUERY_PET_IDS + 1]))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void givenVisitsOfPets111And222() {
+        given(visitRepository.findByPetIdInChunks(any())).willCallRealMethod();
+        given(visitRepository.findByPetIdIn(asList(111, 222)))
+            .willReturn(
+                asList(
+                    Visit.VisitBuilder.aVisit()
+                        .id(1)
+                        .petId(111)
+                        .build(),
+                    Visit.VisitBuilder.aVisit()
+                        .id(2)
+                        .petId(222)
+                        .build()
+                )
+            );
+    }
 }